@@ -0,0 +1,105 @@
+package com.sunbase.clientmanager.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Routes read-only transactions to read replicas while everything else stays on the primary.
+ * The lazy proxy defers fetching a connection until the first statement, when the transaction's
+ * read-only flag is known, and then takes it from the replica router. Read-only transactions do not
+ * populate the second-level or query caches, see {@link ReplicaCacheJpaDialect}.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "clientmanager.replica.enabled", havingValue = "true")
+public class DataSourceConfig {
+
+    @Value("${clientmanager.replica.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${clientmanager.replica.username:${spring.datasource.username}}")
+    private String replicaUsername;
+
+    @Value("${clientmanager.replica.password:${spring.datasource.password}}")
+    private String replicaPassword;
+
+    @Value("${clientmanager.replica.lag-query:}")
+    private String lagQuery;
+
+    @Value("${clientmanager.replica.max-lag-seconds:5}")
+    private long maxLagSeconds;
+
+    /**
+     * Creates the primary connection pool from the spring.datasource properties.
+     */
+    @Bean
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Creates one connection pool per replica behind a health-checked router.
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource) {
+        List<DataSource> replicas = IntStream.range(0, replicaUrls.size())
+                .mapToObj(i -> {
+                    HikariDataSource dataSource = DataSourceBuilder.create()
+                            .type(HikariDataSource.class)
+                            .url(replicaUrls.get(i))
+                            .username(replicaUsername)
+                            .password(replicaPassword)
+                            .build();
+                    dataSource.setPoolName("replica-" + i);
+                    dataSource.setReadOnly(true);
+                    return (DataSource) dataSource;
+                })
+                .toList();
+
+        log.info("Routing read-only transactions to {} replicas", replicas.size());
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, lagQuery, maxLagSeconds);
+    }
+
+    /**
+     * The DataSource used by JPA: the primary, or the replica router for read-only transactions.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primaryDataSource);
+        proxy.setReadOnlyDataSource(replicaRoutingDataSource);
+        return proxy;
+    }
+
+    /**
+     * Swaps in the replica-aware dialect once the transaction manager has taken the factory's default one.
+     */
+    @Bean
+    public static BeanPostProcessor replicaCacheJpaDialectPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof JpaTransactionManager transactionManager) {
+                    transactionManager.setJpaDialect(new ReplicaCacheJpaDialect());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.sunbase.clientmanager.configuration;
+
+import com.sunbase.clientmanager.service.CustomerShards;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Schema migrations are applied on startup by default. With several nodes, migrate once as a deploy step
+ * and start the nodes with clientmanager.migrations.run-on-startup=false; Hibernate still validates the schema.
+ */
+@Slf4j
+@Configuration
+public class FlywayConfig {
+
+    @Value("${clientmanager.migrations.run-on-startup:true}")
+    private boolean runOnStartup;
+
+    /**
+     * Migrates every shard; Flyway fetches a new connection per run, which the shard router sends to the bound shard.
+     */
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(CustomerShards customerShards) {
+        return flyway -> {
+            if (runOnStartup) {
+                customerShards.forEachShard(shard -> flyway.migrate());
+            } else {
+                log.info("Skipping schema migrations on startup");
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package com.sunbase.clientmanager.configuration;
+
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers Blackbird on the shared ObjectMapper: property getters, setters and constructors are called
+ * through generated lambdas instead of reflection. Disable it for a GraalVM native image, which cannot
+ * define the lambdas at runtime.
+ */
+@Configuration
+@ConditionalOnProperty(name = "clientmanager.json.blackbird", havingValue = "true", matchIfMissing = true)
+public class JacksonConfig {
+
+    // Spring Boot adds every Module bean to the auto-configured ObjectMapper
+    @Bean
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
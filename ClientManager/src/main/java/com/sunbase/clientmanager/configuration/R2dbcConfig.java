@@ -0,0 +1,98 @@
+package com.sunbase.clientmanager.configuration;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * R2DBC configuration for the non-blocking customer read path.
+ * The connection pools are kept out of the context so the JPA DataSource is still auto-configured.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "clientmanager.reactive.enabled", havingValue = "true")
+public class R2dbcConfig implements DisposableBean {
+
+    @Value("${clientmanager.reactive.url:}")
+    private String url;
+
+    @Value("${clientmanager.shards.enabled:false}")
+    private boolean shardsEnabled;
+
+    @Value("${clientmanager.shards.urls:}")
+    private List<String> jdbcShardUrls;
+
+    @Value("${clientmanager.reactive.shard-urls:}")
+    private List<String> shardUrls;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${clientmanager.reactive.pool.initial-size:2}")
+    private int initialSize;
+
+    @Value("${clientmanager.reactive.pool.max-size:10}")
+    private int maxSize;
+
+    private final List<ConnectionPool> connectionPools = new ArrayList<>();
+
+    /**
+     * Creates a DatabaseClient backed by a pooled R2DBC connection factory on the same schema as JPA.
+     * With sharding enabled there is one pool per shard, in the order of clientmanager.shards.urls,
+     * and the shard is picked from the subscriber's context.
+     * @throws IllegalStateException if the reactive shard urls do not match the shards
+     */
+    @Bean
+    public DatabaseClient databaseClient() {
+        if (!shardsEnabled) {
+            return DatabaseClient.create(pool(url));
+        }
+        if (shardUrls.size() != jdbcShardUrls.size()) {
+            throw new IllegalStateException("clientmanager.reactive.shard-urls must list one database per entry of "
+                    + "clientmanager.shards.urls, in the same order");
+        }
+        return DatabaseClient.create(new ShardRoutingConnectionFactory(shardUrls.stream()
+                .map(shardUrl -> (ConnectionFactory) pool(shardUrl))
+                .toList()));
+    }
+
+    /**
+     * Disposes the R2DBC connection pools on shutdown.
+     */
+    @Override
+    public void destroy() {
+        connectionPools.forEach(ConnectionPool::dispose);
+    }
+
+    private ConnectionPool pool(String poolUrl) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(poolUrl)
+                .mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+
+        ConnectionPool connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .build());
+        connectionPools.add(connectionPool);
+
+        log.info("R2DBC connection pool created for {}", poolUrl);
+        return connectionPool;
+    }
+}
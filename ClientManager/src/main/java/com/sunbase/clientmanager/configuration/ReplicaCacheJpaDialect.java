@@ -0,0 +1,59 @@
+package com.sunbase.clientmanager.configuration;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+
+import java.sql.SQLException;
+
+/**
+ * Keeps read-only transactions, which may be served by a lagging replica, from filling the second-level
+ * and query caches. Only transactions on the primary put entries, so a row evicted by a write is not
+ * cached again from a replica that has not applied the write yet.
+ */
+public class ReplicaCacheJpaDialect extends HibernateJpaDialect {
+
+    private static final String STORE_MODE = AvailableSettings.JAKARTA_SHARED_CACHE_STORE_MODE;
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+            throws PersistenceException, SQLException, TransactionException {
+        Object transactionData = super.beginTransaction(entityManager, definition);
+        if (!definition.isReadOnly()) {
+            return transactionData;
+        }
+        // find() reads the JPA store mode from the properties and so still reads cached entities. Queries read
+        // the session cache mode, and Hibernate puts query results on a miss even under GET, so they ignore
+        // the cache entirely. The open-in-view EntityManager outlives the transaction, so both are restored
+        Session session = entityManager.unwrap(Session.class);
+        Object previousStoreMode = entityManager.getProperties().get(STORE_MODE);
+        ReadOnlyTransactionData readOnly = new ReadOnlyTransactionData(transactionData, session,
+                session.getCacheMode(), previousStoreMode != null ? previousStoreMode : CacheStoreMode.USE);
+        entityManager.setProperty(STORE_MODE, CacheStoreMode.BYPASS);
+        session.setCacheMode(CacheMode.IGNORE);
+        return readOnly;
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReadOnlyTransactionData readOnly) {
+            if (readOnly.session.isOpen()) {
+                readOnly.session.setProperty(STORE_MODE, readOnly.previousStoreMode);
+                readOnly.session.setCacheMode(readOnly.previousCacheMode);
+            }
+            super.cleanupTransaction(readOnly.delegate);
+        } else {
+            super.cleanupTransaction(transactionData);
+        }
+    }
+
+    private record ReadOnlyTransactionData(Object delegate, Session session,
+                                           CacheMode previousCacheMode, Object previousStoreMode) {
+    }
+}
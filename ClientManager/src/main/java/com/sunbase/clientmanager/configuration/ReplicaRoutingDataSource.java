@@ -0,0 +1,131 @@
+package com.sunbase.clientmanager.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Spreads read-only connections round-robin over the healthy replicas and falls back to the primary
+ * when none is healthy. A replica is healthy when it answers and, if a lag query is configured,
+ * reports a lag no greater than the allowed maximum.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final List<Replica> replicas;
+    private final String lagQuery;
+    private final long maxLagSeconds;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicaDataSources,
+                                    String lagQuery, long maxLagSeconds) {
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+        this.replicas = IntStream.range(0, replicaDataSources.size())
+                .mapToObj(i -> new Replica("replica-" + i, replicaDataSources.get(i)))
+                .toList();
+
+        Map<Object, Object> targets = new HashMap<>();
+        replicas.forEach(replica -> targets.put(replica.name, replica.dataSource));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        checkHealth();
+    }
+
+    /**
+     * Picks the next healthy replica, or null to route to the primary.
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        List<Replica> healthy = replicas.stream().filter(replica -> replica.healthy).toList();
+        if (healthy.isEmpty()) {
+            return null;
+        }
+        return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size())).name;
+    }
+
+    /**
+     * Probes every replica and updates its health, taking lagging or failed replicas out of rotation.
+     */
+    @Scheduled(fixedDelayString = "${clientmanager.replica.health-check-interval-ms:5000}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean healthy = probe(replica);
+            if (healthy != replica.healthy) {
+                log.warn("Read replica {} is now {}", replica.name, healthy ? "healthy" : "unhealthy, reads fall back");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    public boolean isHealthy(int replicaIndex) {
+        return replicas.get(replicaIndex).healthy;
+    }
+
+    private boolean probe(Replica replica) {
+        try (Connection connection = replica.dataSource.getConnection()) {
+            if (lagQuery == null || lagQuery.isBlank()) {
+                return connection.isValid(2);
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                if (!resultSet.next()) {
+                    return false;
+                }
+                Long lag = readLag(resultSet);
+                if (lag == null) {
+                    log.info("Read replica {} reports no lag, replication is not running", replica.name);
+                    return false;
+                }
+                if (lag > maxLagSeconds) {
+                    log.info("Read replica {} is {}s behind the primary (max {}s)", replica.name, lag, maxLagSeconds);
+                    return false;
+                }
+                return true;
+            }
+        } catch (SQLException e) {
+            log.info("Read replica {} health check failed: {}", replica.name, e.getMessage());
+            return false;
+        }
+    }
+
+    // SHOW REPLICA STATUS reports the lag in a named column; a custom lag query returns it first.
+    // The lag is NULL while replication is stopped, which getLong would read as 0
+    private Long readLag(ResultSet resultSet) throws SQLException {
+        long lag;
+        try {
+            lag = resultSet.getLong("Seconds_Behind_Source");
+        } catch (SQLException e) {
+            lag = resultSet.getLong(1);
+        }
+        return resultSet.wasNull() ? null : lag;
+    }
+
+    private static class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -3,8 +3,11 @@ package com.sunbase.clientmanager.configuration;
 import java.util.Arrays;
 import java.util.Collections;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sunbase.clientmanager.security.AdmissionControl;
 import com.sunbase.clientmanager.security.JwtTokenGeneratorFilter;
 import com.sunbase.clientmanager.security.JwtTokenValidatorFilter;
+import com.sunbase.clientmanager.security.RateLimitFilter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -20,11 +23,12 @@ import org.springframework.security.web.csrf.CsrfTokenRequestAttributeHandler;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 
 /**
  * Security configuration for the application.
- * Configures HTTP security, CORS settings, CSRF protection, and filter chains.
+ * Configures HTTP security, CORS settings, CSRF protection, rate limiting, and filter chains.
  */
 @Slf4j
 @Configuration
@@ -35,7 +39,8 @@ public class SecurityConfig {
 	 * @throws Exception if an error occurs during configuration
 	 */
 	@Bean
-	public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+	public SecurityFilterChain securityFilterChain(HttpSecurity http, AdmissionControl admissionControl,
+			ObjectMapper objectMapper) throws Exception {
 
 		CsrfTokenRequestAttributeHandler requestHandler = new CsrfTokenRequestAttributeHandler();
 
@@ -53,7 +58,7 @@ public class SecurityConfig {
 							cfg.setAllowedMethods(Collections.singletonList("*"));
 							cfg.setAllowCredentials(true);
 							cfg.setAllowedHeaders(Collections.singletonList("*"));
-							cfg.setExposedHeaders(Arrays.asList("Authorization"));
+							cfg.setExposedHeaders(Arrays.asList("Authorization", "ETag", "Retry-After", "X-Change-Cursor"));
 							return cfg;
 						}
 					});
@@ -63,6 +68,8 @@ public class SecurityConfig {
 					auth
 							.requestMatchers(HttpMethod.POST, "/api/auth/register").permitAll()
 							.requestMatchers(HttpMethod.POST, "/api/auth/login").permitAll()
+							// Streaming responses complete on an async dispatch that was already authorized
+							.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
 							.anyRequest().authenticated();
 					log.info("Authorization rules configured.");
 				})
@@ -73,6 +80,8 @@ public class SecurityConfig {
 				})
 				.addFilterBefore(new JwtTokenValidatorFilter(), BasicAuthenticationFilter.class)
 				.addFilterAfter(new JwtTokenGeneratorFilter(), BasicAuthenticationFilter.class)
+				// Runs once the user is known, before any controller work
+				.addFilterAfter(new RateLimitFilter(admissionControl, objectMapper), JwtTokenGeneratorFilter.class)
 				.formLogin(Customizer.withDefaults())
 				.httpBasic(Customizer.withDefaults());
 
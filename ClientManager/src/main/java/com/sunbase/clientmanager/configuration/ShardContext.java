@@ -0,0 +1,44 @@
+package com.sunbase.clientmanager.configuration;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds the shard the current thread works against. The shard router reads it when a connection is
+ * fetched, so it must be bound before the transaction (or, outside a transaction, the statement) starts.
+ */
+public final class ShardContext {
+
+    /**
+     * Key of the shard in a Reactor context, read by the R2DBC shard router.
+     */
+    public static final String REACTOR_KEY = ShardContext.class.getName() + ".shard";
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * Returns the shard bound to the current thread, or null when none is bound.
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the action with the shard bound, restoring the previous binding afterwards.
+     */
+    public static <T> T call(int shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.sunbase.clientmanager.configuration;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hands out R2DBC connections to the shard stored under ShardContext.REACTOR_KEY in the subscriber's
+ * Reactor context; a thread-local binding does not follow a reactive pipeline. Without one, connections
+ * come from shard 0, as with ShardRoutingDataSource.
+ */
+public class ShardRoutingConnectionFactory extends AbstractRoutingConnectionFactory {
+
+    public ShardRoutingConnectionFactory(List<ConnectionFactory> shards) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int i = 0; i < shards.size(); i++) {
+            targets.put(i, shards.get(i));
+        }
+        setTargetConnectionFactories(targets);
+        setDefaultTargetConnectionFactory(shards.get(0));
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> Mono.just(context.getOrDefault(ShardContext.REACTOR_KEY, 0)));
+    }
+}
@@ -0,0 +1,76 @@
+package com.sunbase.clientmanager.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Spreads customers over several databases with the same schema. Every shard holds the customers whose
+ * id hashes to it, together with their tombstones, change events and counts, so each write stays a
+ * local transaction; CustomerShards binds the shard before work starts and this router follows it.
+ * Cannot be combined with read replicas (clientmanager.replica.enabled); startup fails if both are enabled.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "clientmanager.shards.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Value("${clientmanager.shards.urls}")
+    private List<String> shardUrls;
+
+    @Value("${clientmanager.shards.username:${spring.datasource.username}}")
+    private String shardUsername;
+
+    @Value("${clientmanager.shards.password:${spring.datasource.password}}")
+    private String shardPassword;
+
+    @Value("${clientmanager.replica.enabled:false}")
+    private boolean replicasEnabled;
+
+    /**
+     * Creates one connection pool per shard behind the shard router used by JPA.
+     * @throws IllegalStateException if read replicas are enabled as well
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource() {
+        if (replicasEnabled) {
+            throw new IllegalStateException("clientmanager.shards.enabled cannot be combined with "
+                    + "clientmanager.replica.enabled: shards have no replica routing, disable one of them");
+        }
+        List<DataSource> shards = IntStream.range(0, shardUrls.size())
+                .mapToObj(i -> {
+                    HikariDataSource dataSource = DataSourceBuilder.create()
+                            .type(HikariDataSource.class)
+                            .url(shardUrls.get(i).trim())
+                            .username(shardUsername)
+                            .password(shardPassword)
+                            .build();
+                    dataSource.setPoolName("shard-" + i);
+                    return (DataSource) dataSource;
+                })
+                .toList();
+
+        log.info("Sharding customers over {} databases", shards.size());
+        return new ShardRoutingDataSource(shards);
+    }
+
+    /**
+     * Turns off the Hibernate query cache, whose keys do not include the shard the results came from.
+     * Entities stay in the second-level cache: an id lives on exactly one shard.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer shardedQueryCacheCustomizer() {
+        return properties -> properties.put("hibernate.cache.use_query_cache", false);
+    }
+}
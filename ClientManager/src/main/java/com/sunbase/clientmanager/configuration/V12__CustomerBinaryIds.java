@@ -0,0 +1,91 @@
+package com.sunbase.clientmanager.configuration;
+
+import com.sunbase.clientmanager.type.CustomerIdCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts the customer and tombstone ids from VARCHAR(255) to VARBINARY(255) when clientmanager.ids.binary
+ * is enabled. Every id goes through CustomerIdCodec, so the stored bytes are exactly what the application binds.
+ * Without binary ids the migration changes nothing; to switch an existing database later, delete its row from
+ * flyway_schema_history and restart with clientmanager.ids.binary=true.
+ * A Java migration so it runs on both MySQL and the H2 test databases; Spring Boot registers it with Flyway.
+ */
+@Slf4j
+@Component
+public class V12__CustomerBinaryIds extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private CustomerIdCodec customerIdCodec;
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        if (!customerIdCodec.isBinary()) {
+            log.info("Customer ids stay VARCHAR; clientmanager.ids.binary is disabled");
+            return;
+        }
+        for (String table : List.of("customer", "customer_tombstone")) {
+            convert(context.getConnection(), table);
+        }
+    }
+
+    private void convert(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE " + table + " ADD COLUMN uuid_bin VARBINARY(255)");
+        }
+
+        int converted = 0;
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT uuid FROM " + table + " WHERE uuid > ? ORDER BY uuid LIMIT " + BATCH_SIZE);
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE " + table + " SET uuid_bin = ? WHERE uuid = ?")) {
+            String last = "";
+            List<String> uuids;
+            do {
+                uuids = new ArrayList<>();
+                select.setString(1, last);
+                try (ResultSet resultSet = select.executeQuery()) {
+                    while (resultSet.next()) {
+                        uuids.add(resultSet.getString(1));
+                    }
+                }
+                for (String uuid : uuids) {
+                    if (!customerIdCodec.isStorable(uuid)) {
+                        throw new FlywayException("Customer ID in " + table + " cannot be stored in binary form: " + uuid);
+                    }
+                    update.setBytes(1, (byte[]) customerIdCodec.toDatabase(uuid));
+                    update.setString(2, uuid);
+                    update.addBatch();
+                }
+                update.executeBatch();
+                converted += uuids.size();
+                if (!uuids.isEmpty()) {
+                    last = uuids.get(uuids.size() - 1);
+                }
+            } while (uuids.size() == BATCH_SIZE);
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE " + table + " MODIFY COLUMN uuid_bin VARBINARY(255) NOT NULL");
+            statement.execute("ALTER TABLE " + table + " DROP PRIMARY KEY");
+            statement.execute("ALTER TABLE " + table + " DROP COLUMN uuid");
+            statement.execute("ALTER TABLE " + table + " RENAME COLUMN uuid_bin TO uuid");
+            statement.execute("ALTER TABLE " + table + " ADD PRIMARY KEY (uuid)");
+        }
+        log.info("Converted {} ids of {} to binary", converted, table);
+    }
+}
@@ -1,5 +1,6 @@
 package com.sunbase.clientmanager.controller;
 
+import com.sunbase.clientmanager.dto.LoginResponse;
 import com.sunbase.clientmanager.entity.User;
 import com.sunbase.clientmanager.service.AuthService;
 import lombok.extern.slf4j.Slf4j;
@@ -26,10 +27,11 @@ public class AuthController {
      * Handles user login requests.
      */
     @GetMapping("/login")
-    public ResponseEntity<Authentication> login(Authentication auth) {
+    public ResponseEntity<LoginResponse> login(Authentication auth) {
         log.info("User logged in: {}", auth.getName());
 
-        return new ResponseEntity<>(authService.getAuthenticationDetails(auth), HttpStatus.ACCEPTED);
+        LoginResponse response = LoginResponse.from(authService.getAuthenticationDetails(auth));
+        return new ResponseEntity<>(response, HttpStatus.ACCEPTED);
     }
 
     /**
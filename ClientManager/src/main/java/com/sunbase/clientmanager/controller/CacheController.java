@@ -0,0 +1,38 @@
+package com.sunbase.clientmanager.controller;
+
+import com.sunbase.clientmanager.dto.CacheStats;
+import com.sunbase.clientmanager.service.CacheStatisticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/cache")
+@Slf4j
+@CrossOrigin("*")
+public class CacheController {
+
+    @Autowired
+    private CacheStatisticsService cacheStatisticsService;
+
+    /**
+     * Retrieves second-level and query cache statistics.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<CacheStats> getStatistics() {
+        log.info("Retrieving cache statistics");
+        return new ResponseEntity<>(cacheStatisticsService.getStatistics(), HttpStatus.OK);
+    }
+
+    /**
+     * Resets the cache statistics counters.
+     */
+    @DeleteMapping("/stats")
+    public ResponseEntity<Void> clearStatistics() {
+        log.info("Clearing cache statistics");
+        cacheStatisticsService.clearStatistics();
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+}
@@ -0,0 +1,47 @@
+package com.sunbase.clientmanager.controller;
+
+import com.sunbase.clientmanager.dto.AggregateCount;
+import com.sunbase.clientmanager.service.CustomerAggregateService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/customers/aggregates")
+@Slf4j
+@CrossOrigin("*")
+public class CustomerAggregateController {
+
+    @Autowired
+    private CustomerAggregateService aggregateService;
+
+    /**
+     * Retrieves customer counts per city or state; top limits the result to the largest values.
+     */
+    @GetMapping("/{dimension}")
+    public ResponseEntity<List<AggregateCount>> getDistribution(
+            @PathVariable String dimension,
+            @RequestParam(defaultValue = "0") int top) {
+        log.info("Retrieving customer counts by {} - Top: {}", dimension, top);
+        List<AggregateCount> counts = aggregateService.getDistribution(dimension, top);
+
+        log.info("Customer counts retrieved successfully");
+        return new ResponseEntity<>(counts, HttpStatus.OK);
+    }
+
+    /**
+     * Recomputes the aggregates from the customer table.
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<String> rebuild() {
+        log.info("Rebuilding customer aggregates");
+        String result = aggregateService.rebuild();
+
+        log.info(result);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+}
@@ -0,0 +1,61 @@
+package com.sunbase.clientmanager.controller;
+
+import com.sunbase.clientmanager.dto.ChangePage;
+import com.sunbase.clientmanager.dto.CustomerChangeResponse;
+import com.sunbase.clientmanager.service.CustomerChangeService;
+import com.sunbase.clientmanager.service.SseCustomerChangePublisher;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/customers/changes")
+@Slf4j
+@CrossOrigin("*")
+public class CustomerChangeController {
+
+    @Autowired
+    private CustomerChangeService changeService;
+
+    @Autowired
+    private SseCustomerChangePublisher ssePublisher;
+
+    private static final String CURSOR_HEADER = "X-Change-Cursor";
+
+    /**
+     * Streams customer changes from every shard as server-sent events; each event id is the cursor after it.
+     * Resumes after the Last-Event-ID header or the after cursor; otherwise starts from the latest change.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestParam(required = false) String after,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        String cursor = lastEventId != null ? lastEventId
+                : after != null ? after
+                : changeService.getLatestCursor();
+        log.info("Opening customer change stream from cursor {}", cursor);
+        return ssePublisher.subscribe(cursor);
+    }
+
+    /**
+     * Retrieves the customer changes from every shard committed after the given cursor.
+     * The cursor to pass on the next poll is returned in the X-Change-Cursor header.
+     */
+    @GetMapping("/poll")
+    public ResponseEntity<List<CustomerChangeResponse>> pollChanges(
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit) {
+        log.info("Polling customer changes - After: {}, Limit: {}", after, limit);
+        ChangePage changes = changeService.getChanges(after, limit);
+
+        log.info("Customer changes retrieved successfully: {}", changes.events().size());
+        return ResponseEntity.ok()
+                .header(CURSOR_HEADER, changes.cursor())
+                .body(changes.events().stream().map(CustomerChangeResponse::from).toList());
+    }
+}
@@ -1,17 +1,25 @@
 package com.sunbase.clientmanager.controller;
 
+import com.sunbase.clientmanager.dto.CustomerFilter;
+import com.sunbase.clientmanager.dto.CustomerRequest;
+import com.sunbase.clientmanager.dto.CustomerResponse;
 import com.sunbase.clientmanager.dto.Password;
 import com.sunbase.clientmanager.entity.Customer;
-import com.sunbase.clientmanager.service.CustomerServiceImpl;
+import com.sunbase.clientmanager.service.CustomerService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import com.sunbase.clientmanager.exception.ClientManagerException;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/customers")
 @Slf4j
@@ -19,43 +27,94 @@ import lombok.extern.slf4j.Slf4j;
 public class CustomerController {
 
     @Autowired
-    private CustomerServiceImpl customerService;
+    private CustomerService customerService;
 
     /**
-     * Creates a new customer.
+     * Creates a new customer, or returns 200 with the existing customer when the duplicate policy merged it.
      */
     @PostMapping
-    public ResponseEntity<Customer> createCustomer(@Valid @RequestBody Customer customer) {
+    public ResponseEntity<CustomerResponse> createCustomer(@Valid @RequestBody CustomerRequest customer) {
         log.info("Creating customer: {}", customer);
-        Customer createdCustomer = customerService.createCustomer(customer);
+        Customer requested = customer.toCustomer();
+        Customer saved = customerService.createCustomer(requested);
+        CustomerResponse createdCustomer = CustomerResponse.from(saved);
 
+        // A merge returns the existing customer rather than the one built from the request
+        if (saved != requested) {
+            log.info("Customer merged into existing customer: {}", createdCustomer);
+            return ResponseEntity.ok().eTag(String.valueOf(createdCustomer.version())).body(createdCustomer);
+        }
         log.info("Customer created successfully: {}", createdCustomer);
         return new ResponseEntity<>(createdCustomer, HttpStatus.CREATED);
     }
 
     /**
-     * Updates an existing customer.
+     * Updates an existing customer; an If-Match version makes the update conditional.
      */
     @PutMapping("/{uuid}")
-    public ResponseEntity<Customer> updateCustomer(@PathVariable String uuid, @RequestBody Customer customer) {
+    public ResponseEntity<CustomerResponse> updateCustomer(@PathVariable String uuid,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                           @RequestBody CustomerRequest customer) {
         log.info("Updating customer with ID: {}", uuid);
-        Customer updatedCustomer = customerService.updateCustomer(uuid, customer);
+        Customer update = customer.toCustomer();
+        update.setVersion(parseVersion(ifMatch));
+        CustomerResponse updatedCustomer = CustomerResponse.from(customerService.updateCustomer(uuid, update));
 
         log.info("Customer updated successfully: {}", updatedCustomer);
-        return new ResponseEntity<>(updatedCustomer, HttpStatus.OK);
+        return ResponseEntity.ok().eTag(String.valueOf(updatedCustomer.version())).body(updatedCustomer);
+    }
+
+    /**
+     * Partially updates a customer with a JSON Merge Patch; an If-Match version makes the update conditional.
+     */
+    @PatchMapping(value = "/{uuid}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<CustomerResponse> patchCustomer(@PathVariable String uuid,
+                                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                          @RequestBody Map<String, Object> patch) {
+        log.info("Patching customer with ID: {}, Fields: {}", uuid, patch.keySet());
+        CustomerResponse patchedCustomer =
+                CustomerResponse.from(customerService.patchCustomer(uuid, patch, parseVersion(ifMatch)));
+
+        log.info("Customer patched successfully: {}", patchedCustomer);
+        return ResponseEntity.ok().eTag(String.valueOf(patchedCustomer.version())).body(patchedCustomer);
     }
 
     /**
      * Retrieves a list of customers with pagination, sorting, and searching.
      */
     @GetMapping
-    public ResponseEntity<Page<Customer>> getAllCustomers(
+    public ResponseEntity<Page<CustomerResponse>> getAllCustomers(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "uuid") String sortBy,
             @RequestParam(defaultValue = "") String value) {
         log.info("Retrieving customers - Page: {}, Size: {}, Sort: {}, Search: {}", page, size, sortBy, value);
-        Page<Customer> customers = customerService.getAllCustomers(page, size, sortBy, value);
+        Page<CustomerResponse> customers = customerService.getAllCustomers(page, size, sortBy, value)
+                .map(CustomerResponse::from);
+
+        log.info("Customers retrieved successfully");
+        return new ResponseEntity<>(customers, HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves customers matching any combination of filters, with independent sorting.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Page<CustomerResponse>> searchCustomers(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String state,
+            @RequestParam(required = false) String firstName,
+            @RequestParam(required = false) String lastName,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String phone,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "uuid") String sortBy,
+            @RequestParam(defaultValue = "asc") String direction) {
+        CustomerFilter filter = new CustomerFilter(city, state, firstName, lastName, email, phone);
+        log.info("Searching customers - Filter: {}, Page: {}, Size: {}, Sort: {} {}", filter, page, size, sortBy, direction);
+        Page<CustomerResponse> customers = customerService.searchCustomers(filter, page, size, sortBy, direction)
+                .map(CustomerResponse::from);
 
         log.info("Customers retrieved successfully");
         return new ResponseEntity<>(customers, HttpStatus.OK);
@@ -65,12 +124,12 @@ public class CustomerController {
      * Retrieves a single customer by ID.
      */
     @GetMapping("/{uuid}")
-    public ResponseEntity<Customer> getCustomerById(@PathVariable String uuid) {
+    public ResponseEntity<CustomerResponse> getCustomerById(@PathVariable String uuid) {
         log.info("Retrieving customer with ID: {}", uuid);
-        Customer customer = customerService.getCustomerById(uuid);
+        CustomerResponse customer = CustomerResponse.from(customerService.getCustomerById(uuid));
 
         log.info("Customer retrieved successfully: {}", customer);
-        return new ResponseEntity<>(customer, HttpStatus.OK);
+        return ResponseEntity.ok().eTag(String.valueOf(customer.version())).body(customer);
     }
 
     /**
@@ -85,6 +144,18 @@ public class CustomerController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    /**
+     * Deletes several customers by ID in one statement.
+     */
+    @PostMapping("/bulk-delete")
+    public ResponseEntity<String> deleteCustomers(@RequestBody List<String> uuids) {
+        log.info("Deleting {} customers", uuids.size());
+        int deleted = customerService.deleteCustomers(uuids);
+
+        log.info("Customers deleted successfully: {}", deleted);
+        return new ResponseEntity<>(deleted + " customers deleted successfully", HttpStatus.OK);
+    }
+
     /**
      * Synchronizes customer data from a remote API.
      */
@@ -96,4 +167,20 @@ public class CustomerController {
         log.info("Customer data synchronized successfully: {}", syncStatus);
         return new ResponseEntity<>(syncStatus, HttpStatus.OK);
     }
+
+    // Accepts the ETag as sent back by clients ("3", W/"3" or 3); "*" or no header means unconditional
+    private Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String version = ifMatch.trim();
+        if (version.startsWith("W/")) {
+            version = version.substring(2);
+        }
+        try {
+            return Long.valueOf(version.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new ClientManagerException("Invalid If-Match version: " + ifMatch);
+        }
+    }
 }
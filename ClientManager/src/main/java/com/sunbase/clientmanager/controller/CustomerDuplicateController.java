@@ -0,0 +1,42 @@
+package com.sunbase.clientmanager.controller;
+
+import com.sunbase.clientmanager.dto.DuplicateReport;
+import com.sunbase.clientmanager.service.CustomerDuplicateService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/customers/duplicates")
+@Slf4j
+@CrossOrigin("*")
+public class CustomerDuplicateController {
+
+    @Autowired
+    private CustomerDuplicateService duplicateService;
+
+    /**
+     * Retrieves the clusters of customers sharing a normalized email or phone, largest first.
+     */
+    @GetMapping
+    public ResponseEntity<DuplicateReport> getReport(@RequestParam(defaultValue = "100") int limit) {
+        log.info("Building duplicate customer report - Limit: {}", limit);
+        DuplicateReport report = duplicateService.getReport(limit);
+
+        log.info("Duplicate report built: {} clusters, {} customers", report.clusterCount(), report.customerCount());
+        return new ResponseEntity<>(report, HttpStatus.OK);
+    }
+
+    /**
+     * Computes fingerprints for customers stored before duplicate detection existed.
+     */
+    @PostMapping("/backfill")
+    public ResponseEntity<String> backfillFingerprints() {
+        log.info("Backfilling customer fingerprints");
+        int updated = duplicateService.backfillFingerprints();
+
+        return new ResponseEntity<>(updated + " customers fingerprinted", HttpStatus.OK);
+    }
+}
@@ -0,0 +1,45 @@
+package com.sunbase.clientmanager.controller;
+
+import com.sunbase.clientmanager.dto.ShardCount;
+import com.sunbase.clientmanager.service.CustomerShardService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/customers/shards")
+@Slf4j
+@CrossOrigin("*")
+public class CustomerShardController {
+
+    @Autowired
+    private CustomerShardService shardService;
+
+    /**
+     * Retrieves the number of customers per shard and how many of them belong on another shard.
+     */
+    @GetMapping
+    public ResponseEntity<List<ShardCount>> getShardCounts() {
+        log.info("Retrieving customer counts per shard");
+        List<ShardCount> counts = shardService.getShardCounts();
+
+        log.info("Shard counts retrieved successfully");
+        return new ResponseEntity<>(counts, HttpStatus.OK);
+    }
+
+    /**
+     * Moves every customer that is not on the shard its id maps to, e.g. after adding a shard.
+     */
+    @PostMapping("/rebalance")
+    public ResponseEntity<String> rebalance() {
+        log.info("Rebalancing customers between shards");
+        String result = shardService.rebalance();
+
+        log.info(result);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+}
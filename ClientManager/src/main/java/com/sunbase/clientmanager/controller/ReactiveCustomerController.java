@@ -0,0 +1,59 @@
+package com.sunbase.clientmanager.controller;
+
+import com.sunbase.clientmanager.dto.CustomerResponse;
+import com.sunbase.clientmanager.service.ReactiveCustomerService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking, read-only customer endpoints that stream rows as NDJSON or server-sent events.
+ */
+@RestController
+@RequestMapping("/api/reactive/customers")
+@Slf4j
+@CrossOrigin("*")
+@ConditionalOnProperty(name = "clientmanager.reactive.enabled", havingValue = "true")
+public class ReactiveCustomerController {
+
+    @Autowired
+    private ReactiveCustomerService reactiveCustomerService;
+
+    /**
+     * Streams a page of customers sorted by the given field.
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<CustomerResponse> getAllCustomers(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "uuid") String sortBy) {
+        log.info("Streaming customers - Page: {}, Size: {}, Sort: {}", page, size, sortBy);
+        return reactiveCustomerService.getAllCustomers(page, size, sortBy).map(CustomerResponse::from);
+    }
+
+    /**
+     * Streams customers matching a single field value.
+     */
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    public Flux<CustomerResponse> searchCustomers(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam String field,
+            @RequestParam String value) {
+        log.info("Streaming customer search - Page: {}, Size: {}, Field: {}, Value: {}", page, size, field, value);
+        return reactiveCustomerService.searchCustomers(page, size, field, value).map(CustomerResponse::from);
+    }
+
+    /**
+     * Retrieves a single customer by ID.
+     */
+    @GetMapping("/{uuid}")
+    public Mono<CustomerResponse> getCustomerById(@PathVariable String uuid) {
+        log.info("Retrieving customer with ID: {}", uuid);
+        return reactiveCustomerService.getCustomerById(uuid).map(CustomerResponse::from);
+    }
+}
@@ -0,0 +1,6 @@
+package com.sunbase.clientmanager.dto;
+
+public record AggregateCount(
+        String value,
+        long count) {
+}
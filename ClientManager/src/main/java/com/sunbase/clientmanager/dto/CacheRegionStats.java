@@ -0,0 +1,9 @@
+package com.sunbase.clientmanager.dto;
+
+public record CacheRegionStats(
+        String region,
+        long hitCount,
+        long missCount,
+        long putCount,
+        long elementCount) {
+}
@@ -0,0 +1,13 @@
+package com.sunbase.clientmanager.dto;
+
+import java.util.List;
+
+public record CacheStats(
+        long prepareStatementCount,
+        long entityLoadCount,
+        long secondLevelCacheHitCount,
+        long secondLevelCacheMissCount,
+        long queryCacheHitCount,
+        long queryCacheMissCount,
+        List<CacheRegionStats> regions) {
+}
@@ -0,0 +1,10 @@
+package com.sunbase.clientmanager.dto;
+
+import com.sunbase.clientmanager.entity.CustomerChangeEvent;
+
+import java.util.List;
+
+public record ChangePage(
+        List<CustomerChangeEvent> events,
+        String cursor) {
+}
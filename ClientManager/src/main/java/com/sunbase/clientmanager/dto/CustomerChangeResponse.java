@@ -0,0 +1,23 @@
+package com.sunbase.clientmanager.dto;
+
+import com.sunbase.clientmanager.entity.CustomerChangeEvent;
+import com.sunbase.clientmanager.entity.CustomerChangeEvent.ChangeType;
+
+import java.time.LocalDateTime;
+
+/**
+ * A change event as returned by poll and the change stream. The payload is the customer as a
+ * CustomerResponse JSON document, or null for a deletion.
+ */
+public record CustomerChangeResponse(
+        Long id,
+        String customerUuid,
+        ChangeType changeType,
+        String payload,
+        LocalDateTime createdAt) {
+
+    public static CustomerChangeResponse from(CustomerChangeEvent event) {
+        return new CustomerChangeResponse(event.getId(), event.getCustomerUuid(), event.getChangeType(),
+                event.getPayload(), event.getCreatedAt());
+    }
+}
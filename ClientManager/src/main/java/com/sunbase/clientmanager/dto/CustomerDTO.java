@@ -1,21 +1,16 @@
 package com.sunbase.clientmanager.dto;
 
-import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
-
-@Data
-@AllArgsConstructor
-@NoArgsConstructor
-public class CustomerDTO {
-
-    private String uuid;
-    private String firstName;
-    private String lastName;
-    private String street;
-    private String address;
-    private String city;
-    private String state;
-    private String email;
-    private String phone;
+/**
+ * A customer as returned by the Sunbase customer list API.
+ */
+public record CustomerDTO(
+        String uuid,
+        String firstName,
+        String lastName,
+        String street,
+        String address,
+        String city,
+        String state,
+        String email,
+        String phone) {
 }
@@ -0,0 +1,14 @@
+package com.sunbase.clientmanager.dto;
+
+/**
+ * Optional listing filters; every non-blank field narrows the result.
+ * City, state, email and phone match exactly, first and last name match by prefix.
+ */
+public record CustomerFilter(
+        String city,
+        String state,
+        String firstName,
+        String lastName,
+        String email,
+        String phone) {
+}
@@ -0,0 +1,30 @@
+package com.sunbase.clientmanager.dto;
+
+import com.sunbase.clientmanager.entity.Customer;
+
+/**
+ * The customer fields a client may set on create and update; the id and duplicate link are assigned by the service.
+ */
+public record CustomerRequest(
+        String firstName,
+        String lastName,
+        String street,
+        String address,
+        String city,
+        String state,
+        String email,
+        String phone) {
+
+    public Customer toCustomer() {
+        Customer customer = new Customer();
+        customer.setFirstName(firstName);
+        customer.setLastName(lastName);
+        customer.setStreet(street);
+        customer.setAddress(address);
+        customer.setCity(city);
+        customer.setState(state);
+        customer.setEmail(email);
+        customer.setPhone(phone);
+        return customer;
+    }
+}
@@ -0,0 +1,27 @@
+package com.sunbase.clientmanager.dto;
+
+import com.sunbase.clientmanager.entity.Customer;
+
+/**
+ * A customer as returned by the API and recorded in change events, with the same fields the entity exposed.
+ * The version is the value to send back in If-Match for a conditional update.
+ */
+public record CustomerResponse(
+        String uuid,
+        String firstName,
+        String lastName,
+        String street,
+        String address,
+        String city,
+        String state,
+        String email,
+        String phone,
+        String duplicateOf,
+        Long version) {
+
+    public static CustomerResponse from(Customer customer) {
+        return new CustomerResponse(customer.getUuid(), customer.getFirstName(), customer.getLastName(),
+                customer.getStreet(), customer.getAddress(), customer.getCity(), customer.getState(),
+                customer.getEmail(), customer.getPhone(), customer.getDuplicateOf(), customer.getVersion());
+    }
+}
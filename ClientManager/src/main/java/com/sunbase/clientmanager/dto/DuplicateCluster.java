@@ -0,0 +1,9 @@
+package com.sunbase.clientmanager.dto;
+
+import java.util.List;
+
+public record DuplicateCluster(
+        List<String> uuids,
+        List<String> emailFingerprints,
+        List<String> phoneFingerprints) {
+}
@@ -0,0 +1,9 @@
+package com.sunbase.clientmanager.dto;
+
+import java.util.List;
+
+public record DuplicateReport(
+        int clusterCount,
+        int customerCount,
+        List<DuplicateCluster> clusters) {
+}
@@ -0,0 +1,20 @@
+package com.sunbase.clientmanager.dto;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+/**
+ * The logged-in user; the JWT itself is returned in the Authorization header.
+ */
+public record LoginResponse(
+        String username,
+        List<String> authorities) {
+
+    public static LoginResponse from(Authentication authentication) {
+        return new LoginResponse(authentication.getName(), authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+    }
+}
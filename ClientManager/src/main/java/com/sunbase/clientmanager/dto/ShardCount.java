@@ -0,0 +1,7 @@
+package com.sunbase.clientmanager.dto;
+
+public record ShardCount(
+        int shard,
+        long customers,
+        long misplaced) {
+}
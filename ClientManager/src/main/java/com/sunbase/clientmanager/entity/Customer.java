@@ -1,18 +1,64 @@
 package com.sunbase.clientmanager.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.sunbase.clientmanager.type.CustomerFingerprints;
+import com.sunbase.clientmanager.type.CustomerIdType;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.Type;
 
+import java.time.LocalDateTime;
+
+/**
+ * Customer record. Deleted customers keep a deletedAt tombstone until the purger removes them,
+ * and are hidden from every HQL query through the auto-enabled activeCustomer filter.
+ * Filters do not apply to loads by id, so callers of findById must check isDeleted().
+ * Entities are kept in the second-level cache; bulk JPQL updates evict the whole region.
+ * The email and phone fingerprints are normalized copies used for duplicate detection and are
+ * recomputed on every insert and update.
+ * Updates write only the changed columns and are checked against the version, which every update increments.
+ */
 @Entity
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "customer")
+@Table(indexes = {
+        @Index(name = "idx_customer_deleted_at", columnList = "deletedAt"),
+        // Filtered listing: city [+ state] [+ first name prefix], state [+ first name prefix], single-column lookups
+        @Index(name = "idx_customer_city_state_first_name", columnList = "city, state, firstName"),
+        @Index(name = "idx_customer_state_first_name", columnList = "state, firstName"),
+        @Index(name = "idx_customer_first_name", columnList = "firstName"),
+        @Index(name = "idx_customer_last_name", columnList = "lastName"),
+        @Index(name = "idx_customer_email", columnList = "email"),
+        @Index(name = "idx_customer_phone", columnList = "phone"),
+        @Index(name = "idx_customer_email_fingerprint", columnList = "emailFingerprint"),
+        @Index(name = "idx_customer_phone_fingerprint", columnList = "phoneFingerprint")
+})
+@FilterDef(name = Customer.ACTIVE_FILTER, defaultCondition = "deleted_at IS NULL", autoEnabled = true)
+@Filter(name = Customer.ACTIVE_FILTER)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class Customer {
 
+    public static final String ACTIVE_FILTER = "activeCustomer";
+
     @Id
+    @Type(CustomerIdType.class)
     private String uuid;
     private String firstName;
     private String lastName;
@@ -22,4 +68,30 @@ public class Customer {
     private String state;
     private String email;
     private String phone;
+
+    @JsonIgnore
+    private String emailFingerprint;
+    @JsonIgnore
+    private String phoneFingerprint;
+    // Set when the customer was kept although it matched an existing one
+    private String duplicateOf;
+
+    @JsonIgnore
+    private LocalDateTime deletedAt;
+
+    // Null until the customer is first saved, so Spring Data persists new customers without selecting them
+    @Version
+    private Long version;
+
+    @PrePersist
+    @PreUpdate
+    public void refreshFingerprints() {
+        emailFingerprint = CustomerFingerprints.email(email);
+        phoneFingerprint = CustomerFingerprints.phone(phone);
+    }
+
+    @JsonIgnore
+    public boolean isDeleted() {
+        return deletedAt != null;
+    }
 }
@@ -0,0 +1,43 @@
+package com.sunbase.clientmanager.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outbox row describing a single customer mutation. The id is the offset consumers resume from.
+ * Ids are assigned on insert but become visible on commit, so they can appear out of order; readers hold
+ * back events that follow a missing id (see CustomerChangeServiceImpl).
+ */
+@Entity
+@Table(name = "customer_change_event",
+        indexes = @Index(name = "idx_customer_change_event_created_at", columnList = "createdAt"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerChangeEvent {
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED, SYNCED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String customerUuid;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ChangeType changeType;
+
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
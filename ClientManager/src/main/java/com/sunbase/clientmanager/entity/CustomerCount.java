@@ -0,0 +1,46 @@
+package com.sunbase.clientmanager.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Rollup of active customers per city and per state, adjusted in the same transaction as each customer write.
+ * Customers without a city or state are counted under an empty value.
+ */
+@Entity
+@Table(name = "customer_count",
+        indexes = @Index(name = "idx_customer_count_dimension_total", columnList = "dimension, total"))
+@IdClass(CustomerCount.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerCount {
+
+    public enum Dimension {
+        CITY, STATE
+    }
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private Dimension dimension;
+
+    @Id
+    private String dimensionValue;
+
+    @Column(nullable = false)
+    private long total;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private Dimension dimension;
+        private String dimensionValue;
+    }
+}
@@ -0,0 +1,38 @@
+package com.sunbase.clientmanager.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Remote customer that sync merged into, or rejected as a duplicate of, an existing customer. Its remote id
+ * is recorded so later syncs treat it as known instead of matching it again.
+ */
+@Entity
+@Table(name = "customer_remote_duplicate")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerRemoteDuplicate {
+
+    public enum Resolution {
+        MERGED, REJECTED
+    }
+
+    // Kept in the remote form rather than the stored customer id form
+    @Id
+    private String remoteUuid;
+
+    @Column(nullable = false)
+    private String customerUuid;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Resolution resolution;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
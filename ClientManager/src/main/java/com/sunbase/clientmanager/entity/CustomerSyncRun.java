@@ -0,0 +1,68 @@
+package com.sunbase.clientmanager.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Checkpoint of a sync run over one snapshot of the remote customer list. Every committed chunk advances
+ * nextOffset in its own transaction, so a run that failed or was killed resumes at the first uncommitted chunk.
+ * updatedAt is the run's heartbeat: a running run is only taken over by another sync once it is stale.
+ */
+@Entity
+@Table(name = "customer_sync_run")
+@Data
+@NoArgsConstructor
+public class CustomerSyncRun {
+
+    public enum Status {
+        RUNNING, FAILED, COMPLETED, SUPERSEDED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 of the remote ids in order; offsets are only meaningful for the same list
+    @Column(nullable = false, length = 64)
+    private String snapshot;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status;
+
+    private int total;
+    private int nextOffset;
+    private int added;
+    // Remote customers already stored, tombstoned, unstorable or absorbed by the duplicate policy
+    private int skipped;
+    private int attempts;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    // The sync call working on the run; a chunk is only committed by its owner
+    @Column(length = 36)
+    private String owner;
+
+    @Version
+    private long version;
+
+    public CustomerSyncRun(String snapshot, int total, String owner) {
+        this.snapshot = snapshot;
+        this.owner = owner;
+        this.status = Status.RUNNING;
+        this.total = total;
+        this.attempts = 1;
+        this.startedAt = LocalDateTime.now();
+        this.updatedAt = startedAt;
+    }
+}
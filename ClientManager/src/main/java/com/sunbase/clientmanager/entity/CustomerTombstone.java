@@ -0,0 +1,29 @@
+package com.sunbase.clientmanager.entity;
+
+import com.sunbase.clientmanager.type.CustomerIdType;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Type;
+
+import java.time.LocalDateTime;
+
+/**
+ * Compact record of a purged customer, kept so that sync does not re-insert it.
+ */
+@Entity
+@Table(name = "customer_tombstone")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerTombstone {
+
+    @Id
+    @Type(CustomerIdType.class)
+    private String uuid;
+
+    private LocalDateTime deletedAt;
+}
@@ -2,7 +2,9 @@ package com.sunbase.clientmanager.exception;
 
 import java.time.LocalDateTime;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -23,7 +25,7 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorDetails> noHandler(NoHandlerFoundException ex, WebRequest wr) {
         log.warn("NoHandlerFoundException: " + ex.getMessage(), ex);
         ErrorDetails errorDetails = new ErrorDetails(ex.getMessage(), wr.getDescription(false), LocalDateTime.now());
-        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+        return errorResponse(errorDetails, HttpStatus.BAD_REQUEST);
     }
 
     /**
@@ -33,7 +35,18 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorDetails> parentException(Exception ex, WebRequest wr) {
         log.warn("Exception: " + ex.getMessage(), ex);
         ErrorDetails errorDetails = new ErrorDetails(ex.getMessage(), wr.getDescription(false), LocalDateTime.now());
-        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+        return errorResponse(errorDetails, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Handles OptimisticLockingFailureException which occurs when a customer was changed since the version
+     * the client sent or read.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorDetails> optimisticLockingFailure(OptimisticLockingFailureException ex, WebRequest wr) {
+        log.warn("OptimisticLockingFailureException: " + ex.getMessage());
+        ErrorDetails errorDetails = new ErrorDetails(ex.getMessage(), wr.getDescription(false), LocalDateTime.now());
+        return errorResponse(errorDetails, HttpStatus.CONFLICT);
     }
 
     /**
@@ -43,7 +56,7 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorDetails> methodArgValidException(MethodArgumentNotValidException ex, WebRequest wr) {
         log.warn("MethodArgumentNotValidException: " + ex.getMessage(), ex);
         ErrorDetails errorDetails = new ErrorDetails(ex.getMessage(), wr.getDescription(false), LocalDateTime.now());
-        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+        return errorResponse(errorDetails, HttpStatus.BAD_REQUEST);
     }
 
     /**
@@ -53,6 +66,11 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorDetails> gymException(ClientManagerException ex, WebRequest wr) {
         log.warn("ClientManagerException: " + ex.getMessage(), ex);
         ErrorDetails errorDetails = new ErrorDetails(ex.getMessage(), wr.getDescription(false), LocalDateTime.now());
-        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+        return errorResponse(errorDetails, HttpStatus.BAD_REQUEST);
+    }
+
+    // Always JSON, so errors of streaming endpoints (NDJSON, server-sent events) can still be written
+    private ResponseEntity<ErrorDetails> errorResponse(ErrorDetails errorDetails, HttpStatus status) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(errorDetails);
     }
 }
@@ -0,0 +1,24 @@
+package com.sunbase.clientmanager.repository;
+
+import com.sunbase.clientmanager.entity.CustomerChangeEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface CustomerChangeEventRepository extends JpaRepository<CustomerChangeEvent, Long> {
+
+    List<CustomerChangeEvent> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(e.id), 0) FROM CustomerChangeEvent e WHERE e.createdAt < :cutoff")
+    Long findMaxIdCreatedBefore(LocalDateTime cutoff);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CustomerChangeEvent e WHERE e.createdAt < :cutoff")
+    int deleteOlderThan(LocalDateTime cutoff);
+}
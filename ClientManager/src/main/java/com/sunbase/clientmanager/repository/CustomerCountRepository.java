@@ -0,0 +1,39 @@
+package com.sunbase.clientmanager.repository;
+
+import com.sunbase.clientmanager.dto.AggregateCount;
+import com.sunbase.clientmanager.entity.CustomerCount;
+import com.sunbase.clientmanager.entity.CustomerCount.Dimension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface CustomerCountRepository extends JpaRepository<CustomerCount, CustomerCount.Key> {
+
+    @Query("SELECT new com.sunbase.clientmanager.dto.AggregateCount(c.dimensionValue, c.total) FROM CustomerCount c "
+            + "WHERE c.dimension = :dimension AND c.total > 0 ORDER BY c.total DESC, c.dimensionValue")
+    List<AggregateCount> findDistribution(Dimension dimension, Pageable pageable);
+
+    @Modifying
+    @Query(value = "INSERT INTO customer_count (dimension, dimension_value, total) VALUES (:dimension, :value, :delta) "
+            + "ON DUPLICATE KEY UPDATE total = total + :delta", nativeQuery = true)
+    int adjust(String dimension, String value, long delta);
+
+    @Modifying
+    @Query(value = "DELETE FROM customer_count", nativeQuery = true)
+    int deleteAllCounts();
+
+    @Modifying
+    @Query(value = "INSERT INTO customer_count (dimension, dimension_value, total) "
+            + "SELECT 'CITY', COALESCE(city, ''), COUNT(*) FROM customer WHERE deleted_at IS NULL "
+            + "GROUP BY COALESCE(city, '')", nativeQuery = true)
+    int rebuildCityCounts();
+
+    @Modifying
+    @Query(value = "INSERT INTO customer_count (dimension, dimension_value, total) "
+            + "SELECT 'STATE', COALESCE(state, ''), COUNT(*) FROM customer WHERE deleted_at IS NULL "
+            + "GROUP BY COALESCE(state, '')", nativeQuery = true)
+    int rebuildStateCounts();
+}
@@ -0,0 +1,14 @@
+package com.sunbase.clientmanager.repository;
+
+import com.sunbase.clientmanager.entity.CustomerRemoteDuplicate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CustomerRemoteDuplicateRepository extends JpaRepository<CustomerRemoteDuplicate, String> {
+
+    @Query("SELECT d.remoteUuid FROM CustomerRemoteDuplicate d WHERE d.remoteUuid IN :uuids")
+    List<String> findRemoteUuidsIn(Collection<String> uuids);
+}
@@ -1,24 +1,113 @@
 package com.sunbase.clientmanager.repository;
 
 import com.sunbase.clientmanager.entity.Customer;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-import java.util.UUID;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
-public interface CustomerRepository extends JpaRepository<Customer, String> {
+/**
+ * JPQL queries only see active customers through the Customer filter; the native queries below
+ * bypass it and are the only way to reach soft-deleted rows.
+ * The finder slice and count queries are served from the Hibernate query cache, which is
+ * invalidated whenever the customer table is written through Hibernate.
+ */
+public interface CustomerRepository extends JpaRepository<Customer, String>, JpaSpecificationExecutor<Customer>,
+        CustomerSliceRepository {
 
+    // Slices skip the count query; totals come from the count queries below so they can be cached separately
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT c FROM Customer c")
+    Slice<Customer> findSlice(Pageable pageable);
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT c FROM Customer c WHERE c.firstName = :value")
-    Page<Customer> findByFirstName(String value, Pageable pageable);
+    Slice<Customer> findByFirstName(String value, Pageable pageable);
 
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT c FROM Customer c WHERE c.city = :value")
-    Page<Customer> findByCity(String value, Pageable pageable);
+    Slice<Customer> findByCity(String value, Pageable pageable);
 
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT c FROM Customer c WHERE c.email = :value")
-    Page<Customer> findByEmail(String value, Pageable pageable);
+    Slice<Customer> findByEmail(String value, Pageable pageable);
 
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT c FROM Customer c WHERE c.phone = :value")
-    Page<Customer> findByPhone(String value, Pageable pageable);
+    Slice<Customer> findByPhone(String value, Pageable pageable);
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT COUNT(c) FROM Customer c WHERE c.firstName = :value")
+    long countByFirstName(String value);
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT COUNT(c) FROM Customer c WHERE c.city = :value")
+    long countByCity(String value);
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT COUNT(c) FROM Customer c WHERE c.email = :value")
+    long countByEmail(String value);
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT COUNT(c) FROM Customer c WHERE c.phone = :value")
+    long countByPhone(String value);
+
+    // Duplicate detection; both fingerprint columns are indexed
+    @Query("SELECT c FROM Customer c WHERE c.emailFingerprint IN :fingerprints")
+    List<Customer> findByEmailFingerprints(Collection<String> fingerprints);
+
+    @Query("SELECT c FROM Customer c WHERE c.phoneFingerprint IN :fingerprints")
+    List<Customer> findByPhoneFingerprints(Collection<String> fingerprints);
+
+    @Query("SELECT c.emailFingerprint FROM Customer c WHERE c.emailFingerprint IS NOT NULL"
+            + " GROUP BY c.emailFingerprint HAVING COUNT(c) > 1")
+    List<String> findSharedEmailFingerprints();
+
+    @Query("SELECT c.phoneFingerprint FROM Customer c WHERE c.phoneFingerprint IS NOT NULL"
+            + " GROUP BY c.phoneFingerprint HAVING COUNT(c) > 1")
+    List<String> findSharedPhoneFingerprints();
+
+    @Query("SELECT c.uuid, c.emailFingerprint FROM Customer c WHERE c.emailFingerprint IN :fingerprints")
+    List<Object[]> findUuidsByEmailFingerprints(Collection<String> fingerprints);
+
+    @Query("SELECT c.uuid, c.phoneFingerprint FROM Customer c WHERE c.phoneFingerprint IN :fingerprints")
+    List<Object[]> findUuidsByPhoneFingerprints(Collection<String> fingerprints);
+
+    // Rows written before the fingerprint columns existed, walked in id order
+    @Query("SELECT c FROM Customer c WHERE c.emailFingerprint IS NULL AND c.phoneFingerprint IS NULL"
+            + " AND (c.email IS NOT NULL OR c.phone IS NOT NULL) ORDER BY c.uuid")
+    List<Customer> findWithoutFingerprints(Pageable pageable);
+
+    @Query("SELECT c FROM Customer c WHERE c.uuid > :after AND c.emailFingerprint IS NULL AND c.phoneFingerprint IS NULL"
+            + " AND (c.email IS NOT NULL OR c.phone IS NOT NULL) ORDER BY c.uuid")
+    List<Customer> findWithoutFingerprintsAfter(String after, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Customer c SET c.deletedAt = :deletedAt WHERE c.uuid = :uuid AND c.deletedAt IS NULL")
+    int softDeleteById(String uuid, LocalDateTime deletedAt);
+
+    @Modifying
+    @Query("UPDATE Customer c SET c.deletedAt = :deletedAt WHERE c.uuid IN :uuids AND c.deletedAt IS NULL")
+    int softDeleteAllById(Collection<String> uuids, LocalDateTime deletedAt);
+
+    // Native queries return ids in their stored form; convert them with CustomerIdCodec
+    @Query(value = "SELECT uuid FROM customer WHERE uuid IN :uuids", nativeQuery = true)
+    List<Object> findUuidsIncludingDeleted(Collection<Object> uuids);
+
+    @Query(value = "SELECT uuid FROM customer WHERE deleted_at < :cutoff ORDER BY deleted_at LIMIT :limit",
+            nativeQuery = true)
+    List<Object> findDeletedBefore(LocalDateTime cutoff, int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM customer WHERE uuid IN :uuids AND deleted_at IS NOT NULL", nativeQuery = true)
+    int purgeAllById(Collection<Object> uuids);
 }
@@ -0,0 +1,14 @@
+package com.sunbase.clientmanager.repository;
+
+import com.sunbase.clientmanager.entity.Customer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Specification queries without the count query that JpaSpecificationExecutor.findAll(spec, pageable) always runs.
+ */
+public interface CustomerSliceRepository {
+
+    Slice<Customer> findSlice(Specification<Customer> specification, Pageable pageable);
+}
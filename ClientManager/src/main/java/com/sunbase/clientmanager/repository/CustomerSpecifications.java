@@ -0,0 +1,39 @@
+package com.sunbase.clientmanager.repository;
+
+import com.sunbase.clientmanager.dto.CustomerFilter;
+import com.sunbase.clientmanager.entity.Customer;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Builds the WHERE clause for filtered customer listings. Each predicate lines up with a
+ * composite index declared on Customer, so every supported combination can use an index.
+ */
+public final class CustomerSpecifications {
+
+    private CustomerSpecifications() {
+    }
+
+    public static Specification<Customer> matching(CustomerFilter filter) {
+        return Specification.where(equalTo("city", filter.city()))
+                .and(equalTo("state", filter.state()))
+                .and(startsWith("firstName", filter.firstName()))
+                .and(startsWith("lastName", filter.lastName()))
+                .and(equalTo("email", filter.email()))
+                .and(equalTo("phone", filter.phone()));
+    }
+
+    private static Specification<Customer> equalTo(String attribute, String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get(attribute), value);
+    }
+
+    private static Specification<Customer> startsWith(String attribute, String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return null;
+        }
+        String escaped = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        return (root, query, cb) -> cb.like(root.get(attribute), escaped + "%", '\\');
+    }
+}
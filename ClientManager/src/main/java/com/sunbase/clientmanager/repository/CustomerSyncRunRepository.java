@@ -0,0 +1,11 @@
+package com.sunbase.clientmanager.repository;
+
+import com.sunbase.clientmanager.entity.CustomerSyncRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface CustomerSyncRunRepository extends JpaRepository<CustomerSyncRun, Long> {
+
+    Optional<CustomerSyncRun> findFirstByOrderByIdDesc();
+}
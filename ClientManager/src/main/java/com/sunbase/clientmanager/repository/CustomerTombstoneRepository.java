@@ -0,0 +1,20 @@
+package com.sunbase.clientmanager.repository;
+
+import com.sunbase.clientmanager.entity.CustomerTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CustomerTombstoneRepository extends JpaRepository<CustomerTombstone, String> {
+
+    @Query("SELECT t.uuid FROM CustomerTombstone t WHERE t.uuid IN :uuids")
+    List<String> findUuidsIn(Collection<String> uuids);
+
+    @Modifying
+    @Query(value = "INSERT INTO customer_tombstone (uuid, deleted_at) "
+            + "SELECT uuid, deleted_at FROM customer WHERE uuid IN :uuids", nativeQuery = true)
+    int copyFromCustomers(Collection<Object> uuids);
+}
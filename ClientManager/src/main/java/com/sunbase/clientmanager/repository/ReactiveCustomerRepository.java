@@ -0,0 +1,74 @@
+package com.sunbase.clientmanager.repository;
+
+import com.sunbase.clientmanager.entity.Customer;
+import com.sunbase.clientmanager.type.CustomerIdCodec;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Non-blocking read access to the customer table shared with the JPA CustomerRepository.
+ */
+@Repository
+@ConditionalOnProperty(name = "clientmanager.reactive.enabled", havingValue = "true")
+public class ReactiveCustomerRepository {
+
+    private static final String SELECT_CUSTOMER =
+            "SELECT uuid, first_name, last_name, street, address, city, state, email, phone, version FROM customer"
+                    + " WHERE deleted_at IS NULL";
+
+    // Maps the API field names to columns; anything else is rejected before it reaches SQL
+    public static final Map<String, String> COLUMNS = Map.of(
+            "uuid", "uuid",
+            "firstname", "first_name",
+            "lastname", "last_name",
+            "city", "city",
+            "state", "state",
+            "email", "email",
+            "phone", "phone");
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private CustomerIdCodec customerIdCodec;
+
+    public Flux<Customer> findAll(String sortColumn, int limit, long offset) {
+        return databaseClient.sql(SELECT_CUSTOMER + " ORDER BY " + sortColumn + " LIMIT :limit OFFSET :offset")
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map(this::toCustomer)
+                .all();
+    }
+
+    public Flux<Customer> findByColumn(String column, String value, int limit, long offset) {
+        return databaseClient.sql(SELECT_CUSTOMER + " AND " + column + " = :value ORDER BY " + column
+                        + " LIMIT :limit OFFSET :offset")
+                .bind("value", "uuid".equals(column) ? customerIdCodec.toDatabase(value) : value)
+                .bind("limit", limit)
+                .bind("offset", offset)
+                .map(this::toCustomer)
+                .all();
+    }
+
+    public Mono<Customer> findById(String uuid) {
+        return databaseClient.sql(SELECT_CUSTOMER + " AND uuid = :uuid")
+                .bind("uuid", customerIdCodec.toDatabase(uuid))
+                .map(this::toCustomer)
+                .one();
+    }
+
+    private Customer toCustomer(Readable row) {
+        return new Customer(
+                customerIdCodec.fromDatabase(row.get("uuid")), row.get("first_name", String.class), row.get("last_name", String.class),
+                row.get("street", String.class), row.get("address", String.class), row.get("city", String.class),
+                row.get("state", String.class), row.get("email", String.class), row.get("phone", String.class),
+                null, null, null, null, row.get("version", Long.class));
+    }
+}
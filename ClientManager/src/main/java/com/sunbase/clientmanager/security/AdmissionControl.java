@@ -0,0 +1,91 @@
+package com.sunbase.clientmanager.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Per-user request rate limits and concurrency caps for expensive endpoints, applied by RateLimitFilter.
+ * Buckets of users idle for longer than the idle timeout are dropped.
+ */
+@Slf4j
+@Component
+public class AdmissionControl {
+
+    // Endpoints that scan or stream many rows
+    private static final Set<String> LIST_ENDPOINTS = Set.of(
+            "GET /api/customers",
+            "GET /api/customers/search",
+            "GET /api/customers/duplicates",
+            "GET /api/reactive/customers",
+            "GET /api/reactive/customers/search");
+
+    private static final String SYNC_ENDPOINT = "POST /api/customers/sync";
+
+    @Value("${clientmanager.ratelimit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${clientmanager.ratelimit.requests-per-second:20}")
+    private double requestsPerSecond;
+
+    @Value("${clientmanager.ratelimit.burst:40}")
+    private int burst;
+
+    @Value("${clientmanager.ratelimit.idle-minutes:10}")
+    private long idleMinutes;
+
+    @Value("${clientmanager.ratelimit.list.max-concurrent:16}")
+    private int listMaxConcurrent;
+
+    @Value("${clientmanager.ratelimit.list.queue-timeout-ms:250}")
+    private long listQueueTimeoutMs;
+
+    @Value("${clientmanager.ratelimit.sync.max-concurrent:1}")
+    private int syncMaxConcurrent;
+
+    @Value("${clientmanager.ratelimit.sync.queue-timeout-ms:0}")
+    private long syncQueueTimeoutMs;
+
+    private Cache<String, TokenBucket> buckets;
+    private ConcurrencyLimiter listLimiter;
+    private ConcurrencyLimiter syncLimiter;
+
+    @PostConstruct
+    public void init() {
+        buckets = Caffeine.newBuilder().expireAfterAccess(Duration.ofMinutes(idleMinutes)).build();
+        listLimiter = new ConcurrencyLimiter("list", listMaxConcurrent, listQueueTimeoutMs);
+        syncLimiter = new ConcurrencyLimiter("sync", syncMaxConcurrent, syncQueueTimeoutMs);
+        log.info("Admission control {}: {} requests/s per user (burst {}), {} concurrent list, {} concurrent sync",
+                enabled ? "enabled" : "disabled", requestsPerSecond, burst, listMaxConcurrent, syncMaxConcurrent);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes a request token for the user; returns 0 if admitted, otherwise the nanoseconds until a token is free.
+     */
+    public long tryAcquire(String user) {
+        long now = System.nanoTime();
+        return buckets.get(user, key -> new TokenBucket(requestsPerSecond, burst, now)).tryAcquire(now);
+    }
+
+    /**
+     * Returns the concurrency limiter guarding the request's endpoint, or null if it is not limited.
+     */
+    public ConcurrencyLimiter limiterFor(HttpServletRequest request) {
+        String endpoint = request.getMethod() + " " + request.getServletPath();
+        if (SYNC_ENDPOINT.equals(endpoint)) {
+            return syncLimiter;
+        }
+        return LIST_ENDPOINTS.contains(endpoint) ? listLimiter : null;
+    }
+}
@@ -0,0 +1,48 @@
+package com.sunbase.clientmanager.security;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps concurrent executions of an expensive endpoint; callers over the cap queue for at most the timeout.
+ * Uncontended acquires and releases are a single CAS on the semaphore.
+ */
+public final class ConcurrencyLimiter {
+
+    private final String name;
+    private final Semaphore permits;
+    private final long queueTimeoutMs;
+
+    public ConcurrencyLimiter(String name, int maxConcurrent, long queueTimeoutMs) {
+        this.name = name;
+        this.permits = new Semaphore(maxConcurrent);
+        this.queueTimeoutMs = queueTimeoutMs;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getQueueTimeoutMs() {
+        return queueTimeoutMs;
+    }
+
+    /**
+     * Takes a permit, waiting up to the queue timeout; returns false if none became free.
+     */
+    public boolean tryEnter() {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        try {
+            return queueTimeoutMs > 0 && permits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public void exit() {
+        permits.release();
+    }
+}
@@ -0,0 +1,129 @@
+package com.sunbase.clientmanager.security;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sunbase.clientmanager.exception.ErrorDetails;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+	private final AdmissionControl admissionControl;
+	private final ObjectMapper objectMapper;
+
+	public RateLimitFilter(AdmissionControl admissionControl, ObjectMapper objectMapper) {
+		this.admissionControl = admissionControl;
+		this.objectMapper = objectMapper;
+	}
+
+	/**
+	 * Rejects the request with 429 when the user is over their rate or the endpoint is at its concurrency cap.
+	 * Users are keyed by the authenticated username (the JWT username claim), anonymous callers by address.
+	 * @throws ServletException if an error occurs during filtering
+	 * @throws IOException if an I/O error occurs
+	 */
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		String user = userKey();
+		long waitNanos = admissionControl.tryAcquire(user == null ? "address:" + request.getRemoteAddr() : user);
+		if (waitNanos > 0) {
+			reject(request, response, waitNanos, "Rate limit exceeded, retry later.");
+			return;
+		}
+
+		ConcurrencyLimiter limiter = admissionControl.limiterFor(request);
+		if (limiter == null) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+		if (!limiter.tryEnter()) {
+			reject(request, response, TimeUnit.MILLISECONDS.toNanos(limiter.getQueueTimeoutMs()),
+					"Too many concurrent " + limiter.getName() + " requests, retry later.");
+			return;
+		}
+
+		boolean releaseOnCompletion = false;
+		try {
+			filterChain.doFilter(request, response);
+			// Streaming responses keep their permit until the async response completes
+			if (request.isAsyncStarted()) {
+				request.getAsyncContext().addListener(new ReleasingListener(limiter));
+				releaseOnCompletion = true;
+			}
+		} finally {
+			if (!releaseOnCompletion) {
+				limiter.exit();
+			}
+		}
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
+		return !admissionControl.isEnabled();
+	}
+
+	private String userKey() {
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		return authentication == null || !authentication.isAuthenticated() ? null : authentication.getName();
+	}
+
+	private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos, String message)
+			throws IOException {
+		long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+		log.warn("Rejected {} {}: {}", request.getMethod(), request.getRequestURI(), message);
+
+		response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		ErrorDetails errorDetails = new ErrorDetails(message, "uri=" + request.getRequestURI(), LocalDateTime.now());
+		objectMapper.writeValue(response.getOutputStream(), errorDetails);
+	}
+
+	private static final class ReleasingListener implements AsyncListener {
+
+		private final ConcurrencyLimiter limiter;
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		private ReleasingListener(ConcurrencyLimiter limiter) {
+			this.limiter = limiter;
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+			if (released.compareAndSet(false, true)) {
+				limiter.exit();
+			}
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+			event.getAsyncContext().addListener(this);
+		}
+	}
+}
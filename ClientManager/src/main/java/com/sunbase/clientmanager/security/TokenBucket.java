@@ -0,0 +1,39 @@
+package com.sunbase.clientmanager.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket stored as a single theoretical arrival time (the generic cell rate algorithm), so taking a
+ * token is one compare-and-set with no lock. Times are System.nanoTime() values.
+ */
+public final class TokenBucket {
+
+    // Time to earn one token
+    private final long intervalNanos;
+    // How far ahead of now the arrival time may run, i.e. the burst beyond the first token
+    private final long toleranceNanos;
+    private final AtomicLong arrival;
+
+    public TokenBucket(double tokensPerSecond, int burst, long nowNanos) {
+        this.intervalNanos = (long) (1_000_000_000L / tokensPerSecond);
+        this.toleranceNanos = intervalNanos * (Math.max(burst, 1) - 1);
+        this.arrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes a token if one is available and returns 0, otherwise returns the nanoseconds until the next one.
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long current = arrival.get();
+            long start = Math.max(current, nowNanos);
+            long wait = start - toleranceNanos - nowNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrival.compareAndSet(current, start + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
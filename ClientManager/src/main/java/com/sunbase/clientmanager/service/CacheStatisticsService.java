@@ -0,0 +1,10 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.dto.CacheStats;
+
+public interface CacheStatisticsService {
+
+    CacheStats getStatistics();
+
+    void clearStatistics();
+}
@@ -0,0 +1,65 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.dto.CacheRegionStats;
+import com.sunbase.clientmanager.dto.CacheStats;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+@Service
+public class CacheStatisticsServiceImpl implements CacheStatisticsService {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Retrieves Hibernate second-level and query cache statistics, per region and overall.
+     */
+    @Override
+    public CacheStats getStatistics() {
+        Statistics statistics = getHibernateStatistics();
+
+        List<CacheRegionStats> regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .map(statistics::getCacheRegionStatistics)
+                .filter(Objects::nonNull)
+                .map(this::toRegionStats)
+                .toList();
+
+        return new CacheStats(
+                statistics.getPrepareStatementCount(),
+                statistics.getEntityLoadCount(),
+                statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(),
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(),
+                regions);
+    }
+
+    /**
+     * Resets all Hibernate statistics counters.
+     */
+    @Override
+    public void clearStatistics() {
+        getHibernateStatistics().clear();
+    }
+
+    private Statistics getHibernateStatistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private CacheRegionStats toRegionStats(CacheRegionStatistics region) {
+        return new CacheRegionStats(
+                region.getRegionName(),
+                region.getHitCount(),
+                region.getMissCount(),
+                region.getPutCount(),
+                region.getElementCountInMemory());
+    }
+}
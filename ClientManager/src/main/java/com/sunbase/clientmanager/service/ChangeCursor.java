@@ -0,0 +1,43 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.exception.ClientManagerException;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Reads and writes change cursors: the last offset read from every shard's outbox, joined by dashes in
+ * shard order. With a single shard the cursor is the plain offset, as before sharding.
+ */
+final class ChangeCursor {
+
+    private ChangeCursor() {
+    }
+
+    /**
+     * Parses a cursor for the given number of shards; a missing cursor starts every shard at 0.
+     * @throws ClientManagerException if the cursor is malformed or was written for another shard count
+     */
+    static long[] parse(String cursor, int shards) {
+        if (cursor == null || cursor.isBlank()) {
+            return new long[shards];
+        }
+        String[] parts = cursor.trim().split("-", -1);
+        if (parts.length != shards) {
+            throw new ClientManagerException("Invalid change cursor: expected " + shards + " offsets.");
+        }
+        long[] offsets = new long[shards];
+        try {
+            for (int shard = 0; shard < shards; shard++) {
+                offsets[shard] = Long.parseLong(parts[shard]);
+            }
+        } catch (NumberFormatException e) {
+            throw new ClientManagerException("Invalid change cursor: " + cursor);
+        }
+        return offsets;
+    }
+
+    static String format(long[] offsets) {
+        return Arrays.stream(offsets).mapToObj(String::valueOf).collect(Collectors.joining("-"));
+    }
+}
@@ -0,0 +1,19 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.dto.AggregateCount;
+import com.sunbase.clientmanager.entity.Customer;
+
+import java.util.List;
+
+public interface CustomerAggregateService {
+
+    void recordAdded(List<Customer> customers);
+
+    void recordRemoved(List<Customer> customers);
+
+    void recordMoved(String oldCity, String oldState, Customer customer);
+
+    List<AggregateCount> getDistribution(String dimension, int top);
+
+    String rebuild();
+}
@@ -0,0 +1,153 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.dto.AggregateCount;
+import com.sunbase.clientmanager.entity.Customer;
+import com.sunbase.clientmanager.entity.CustomerCount.Dimension;
+import com.sunbase.clientmanager.exception.ClientManagerException;
+import com.sunbase.clientmanager.repository.CustomerCountRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class CustomerAggregateServiceImpl implements CustomerAggregateService {
+
+    @Autowired
+    private CustomerCountRepository customerCountRepository;
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${clientmanager.aggregates.rebuild-on-startup:false}")
+    private boolean rebuildOnStartup;
+
+    /**
+     * Rebuilds the rollup on startup when it is empty on any shard or a rebuild is requested.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (rebuildOnStartup || customerShards.scatter(shard -> customerCountRepository.count()).contains(0L)) {
+            log.info(rebuild());
+        }
+    }
+
+    /**
+     * Counts newly added customers within the caller's transaction.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAdded(List<Customer> customers) {
+        adjust(customers, 1);
+    }
+
+    /**
+     * Uncounts removed customers within the caller's transaction.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordRemoved(List<Customer> customers) {
+        adjust(customers, -1);
+    }
+
+    /**
+     * Moves an updated customer between cities and states within the caller's transaction.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordMoved(String oldCity, String oldState, Customer customer) {
+        if (!Objects.equals(oldCity, customer.getCity())) {
+            customerCountRepository.adjust(Dimension.CITY.name(), valueOf(oldCity), -1);
+            customerCountRepository.adjust(Dimension.CITY.name(), valueOf(customer.getCity()), 1);
+        }
+        if (!Objects.equals(oldState, customer.getState())) {
+            customerCountRepository.adjust(Dimension.STATE.name(), valueOf(oldState), -1);
+            customerCountRepository.adjust(Dimension.STATE.name(), valueOf(customer.getState()), 1);
+        }
+    }
+
+    /**
+     * Retrieves customer counts per city or state, largest first; top 0 returns the full distribution.
+     * @throws ClientManagerException if the dimension or top value is invalid
+     */
+    @Override
+    public List<AggregateCount> getDistribution(String dimension, int top) {
+        if (top < 0) {
+            throw new ClientManagerException("Invalid top value: " + top);
+        }
+        Dimension parsed = parseDimension(dimension);
+        if (!customerShards.isEnabled()) {
+            Pageable pageable = top == 0 ? Pageable.unpaged() : PageRequest.of(0, top);
+            return customerCountRepository.findDistribution(parsed, pageable);
+        }
+
+        // Each shard counts its own customers; a value can appear on every shard, so the full lists are summed
+        Map<String, Long> totals = new HashMap<>();
+        customerShards.scatter(shard -> customerCountRepository.findDistribution(parsed, Pageable.unpaged()))
+                .forEach(counts -> counts.forEach(count -> totals.merge(count.value(), count.count(), Long::sum)));
+        return totals.entrySet().stream()
+                .map(entry -> new AggregateCount(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingLong(AggregateCount::count).reversed().thenComparing(AggregateCount::value))
+                .limit(top == 0 ? Long.MAX_VALUE : top)
+                .toList();
+    }
+
+    /**
+     * Recomputes the rollup from the customer table with one GROUP BY per dimension, in one transaction per shard.
+     */
+    @Override
+    public String rebuild() {
+        List<int[]> rebuilt = customerShards.scatter(shard -> transactionTemplate.execute(status -> {
+            customerCountRepository.deleteAllCounts();
+            return new int[]{customerCountRepository.rebuildCityCounts(), customerCountRepository.rebuildStateCounts()};
+        }));
+        int cities = rebuilt.stream().mapToInt(counts -> counts[0]).sum();
+        int states = rebuilt.stream().mapToInt(counts -> counts[1]).sum();
+        return "Customer aggregates rebuilt: " + cities + " cities, " + states + " states";
+    }
+
+    // Collapses a batch into one upsert per distinct value
+    private void adjust(List<Customer> customers, int sign) {
+        adjust(Dimension.CITY, customers, Customer::getCity, sign);
+        adjust(Dimension.STATE, customers, Customer::getState, sign);
+    }
+
+    private void adjust(Dimension dimension, List<Customer> customers, Function<Customer, String> field, int sign) {
+        Map<String, Long> deltas = customers.stream()
+                .collect(Collectors.groupingBy(customer -> valueOf(field.apply(customer)), TreeMap::new,
+                        Collectors.counting()));
+        deltas.forEach((value, count) -> customerCountRepository.adjust(dimension.name(), value, sign * count));
+    }
+
+    private String valueOf(String value) {
+        return value == null ? "" : value;
+    }
+
+    private Dimension parseDimension(String dimension) {
+        try {
+            return Dimension.valueOf(dimension.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ClientManagerException("Unsupported aggregate dimension: " + dimension);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.entity.CustomerChangeEvent;
+
+import java.util.List;
+
+/**
+ * Receives committed customer change events from the outbox relay, in offset order within each shard.
+ * Implementations are discovered as beans, so a broker-backed publisher can be added alongside the SSE one.
+ */
+public interface CustomerChangePublisher {
+
+    void publish(int shard, List<CustomerChangeEvent> events);
+}
@@ -0,0 +1,114 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.entity.CustomerChangeEvent;
+import com.sunbase.clientmanager.repository.CustomerChangeEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Polls the outbox for committed change events and hands them to every CustomerChangePublisher.
+ */
+@Slf4j
+@Component
+public class CustomerChangeRelay implements SmartLifecycle {
+
+    @Autowired
+    private CustomerChangeService changeService;
+
+    @Autowired
+    private CustomerChangeEventRepository changeEventRepository;
+
+    @Autowired
+    private List<CustomerChangePublisher> publishers;
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    @Value("${clientmanager.changes.batch-size:500}")
+    private int batchSize;
+
+    @Value("${clientmanager.changes.retention-days:7}")
+    private int retentionDays;
+
+    // Offsets are per shard: every shard numbers its own outbox
+    private long[] lastRelayedIds;
+
+    private volatile boolean running;
+
+    /**
+     * Starts relaying from the current end of the outbox; earlier events are served by replay.
+     * Runs as a lifecycle start rather than at bean creation, so the context can be refreshed without a
+     * database (AOT/CDS training runs), yet still before the web server accepts writes.
+     */
+    @Override
+    public void start() {
+        lastRelayedIds = new long[customerShards.getCount()];
+        customerShards.forEachShard(shard -> lastRelayedIds[shard] = changeService.getLatestOffset());
+        running = true;
+        log.info("Customer change relay starting after offsets {}", lastRelayedIds);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Lower phases start first; the embedded web server starts in a phase just below Integer.MAX_VALUE
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    /**
+     * Relays newly committed change events in offset order, shard by shard.
+     * The offset only advances once every publisher accepted the batch, so a failing publisher sees it again.
+     */
+    @Scheduled(fixedDelayString = "${clientmanager.changes.relay-interval-ms:500}")
+    public synchronized void relay() {
+        customerShards.forEachShard(this::relayShard);
+    }
+
+    private void relayShard(int shard) {
+        List<CustomerChangeEvent> events;
+        do {
+            events = changeService.getChangesAfter(lastRelayedIds[shard], batchSize);
+            if (events.isEmpty()) {
+                return;
+            }
+            try {
+                for (CustomerChangePublisher publisher : publishers) {
+                    publisher.publish(shard, events);
+                }
+            } catch (Exception e) {
+                log.warn("Failed to publish customer changes after offset {} of shard {}: {}",
+                        lastRelayedIds[shard], shard, e.getMessage(), e);
+                return;
+            }
+            lastRelayedIds[shard] = events.get(events.size() - 1).getId();
+        } while (events.size() == batchSize);
+    }
+
+    /**
+     * Removes outbox events older than the retention period.
+     */
+    @Scheduled(cron = "${clientmanager.changes.purge-cron:0 0 3 * * *}")
+    public void purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        customerShards.forEachShard(shard -> {
+            int deleted = changeEventRepository.deleteOlderThan(cutoff);
+            log.info("Purged {} customer change events older than {} days", deleted, retentionDays);
+        });
+    }
+}
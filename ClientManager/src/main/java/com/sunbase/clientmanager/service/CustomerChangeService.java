@@ -0,0 +1,25 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.dto.ChangePage;
+import com.sunbase.clientmanager.entity.Customer;
+import com.sunbase.clientmanager.entity.CustomerChangeEvent;
+import com.sunbase.clientmanager.entity.CustomerChangeEvent.ChangeType;
+
+import java.util.List;
+
+public interface CustomerChangeService {
+
+    void recordChange(ChangeType changeType, Customer customer);
+
+    void recordChanges(ChangeType changeType, List<Customer> customers);
+
+    void recordDeletion(String uuid);
+
+    List<CustomerChangeEvent> getChangesAfter(long offset, int limit);
+
+    long getLatestOffset();
+
+    ChangePage getChanges(String cursor, int limit);
+
+    String getLatestCursor();
+}
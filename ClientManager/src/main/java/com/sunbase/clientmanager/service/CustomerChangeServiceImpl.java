@@ -0,0 +1,174 @@
+package com.sunbase.clientmanager.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.sunbase.clientmanager.dto.ChangePage;
+import com.sunbase.clientmanager.dto.CustomerResponse;
+import com.sunbase.clientmanager.entity.Customer;
+import com.sunbase.clientmanager.entity.CustomerChangeEvent;
+import com.sunbase.clientmanager.entity.CustomerChangeEvent.ChangeType;
+import com.sunbase.clientmanager.exception.ClientManagerException;
+import com.sunbase.clientmanager.repository.CustomerChangeEventRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class CustomerChangeServiceImpl implements CustomerChangeService {
+
+    @Autowired
+    private CustomerChangeEventRepository changeEventRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    @Value("${clientmanager.changes.gap-timeout-ms:30000}")
+    private long gapTimeoutMs;
+
+    private static final int LATEST_OFFSET_BATCH = 500;
+
+    // Payloads have the shape of the API responses; the writer is immutable and shared by every event
+    private ObjectWriter payloadWriter;
+
+    @PostConstruct
+    public void init() {
+        payloadWriter = objectMapper.writerFor(CustomerResponse.class);
+    }
+
+    /**
+     * Appends a change event to the outbox within the caller's transaction.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(ChangeType changeType, Customer customer) {
+        changeEventRepository.save(toEvent(changeType, customer.getUuid(), customer));
+    }
+
+    /**
+     * Appends one change event per customer to the outbox within the caller's transaction.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChanges(ChangeType changeType, List<Customer> customers) {
+        changeEventRepository.saveAll(customers.stream()
+                .map(customer -> toEvent(changeType, customer.getUuid(), customer))
+                .toList());
+    }
+
+    /**
+     * Appends a deletion event to the outbox within the caller's transaction.
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeletion(String uuid) {
+        changeEventRepository.save(toEvent(ChangeType.DELETED, uuid, null));
+    }
+
+    /**
+     * Retrieves up to limit change events committed after the given cursor from every shard, merged by
+     * creation time while keeping each shard's offset order, together with the cursor to continue from.
+     * @throws ClientManagerException if the cursor or limit is invalid
+     */
+    @Override
+    public ChangePage getChanges(String cursor, int limit) {
+        long[] offsets = ChangeCursor.parse(cursor, customerShards.getCount());
+        List<List<CustomerChangeEvent>> shardEvents = customerShards.scatter(shard -> getChangesAfter(offsets[shard], limit));
+
+        int[] next = new int[offsets.length];
+        List<CustomerChangeEvent> events = new ArrayList<>();
+        while (events.size() < limit) {
+            int earliest = -1;
+            for (int shard = 0; shard < offsets.length; shard++) {
+                if (next[shard] < shardEvents.get(shard).size() && (earliest < 0
+                        || shardEvents.get(shard).get(next[shard]).getCreatedAt()
+                                .isBefore(shardEvents.get(earliest).get(next[earliest]).getCreatedAt()))) {
+                    earliest = shard;
+                }
+            }
+            if (earliest < 0) {
+                break;
+            }
+            CustomerChangeEvent event = shardEvents.get(earliest).get(next[earliest]++);
+            offsets[earliest] = event.getId();
+            events.add(event);
+        }
+        return new ChangePage(events, ChangeCursor.format(offsets));
+    }
+
+    /**
+     * Returns the cursor after the most recent readable change event of every shard.
+     */
+    @Override
+    public String getLatestCursor() {
+        return ChangeCursor.format(customerShards.scatter(shard -> getLatestOffset()).stream()
+                .mapToLong(Long::longValue)
+                .toArray());
+    }
+
+    /**
+     * Retrieves up to limit change events committed after the given offset in the bound shard, oldest first.
+     * Stops before an event that follows a missing id, unless that event is older than the gap timeout.
+     * @throws ClientManagerException if the offset or limit is invalid
+     */
+    @Override
+    public List<CustomerChangeEvent> getChangesAfter(long offset, int limit) {
+        if (offset < 0 || limit <= 0) {
+            throw new ClientManagerException("Invalid change offset or limit.");
+        }
+        return settledPrefix(offset, changeEventRepository.findByIdGreaterThanOrderByIdAsc(offset, PageRequest.of(0, limit)));
+    }
+
+    /**
+     * Returns the offset of the most recent change event in the bound shard that can be read without
+     * skipping a pending one, or 0 if there are none.
+     */
+    @Override
+    public long getLatestOffset() {
+        long offset = changeEventRepository.findMaxIdCreatedBefore(LocalDateTime.now().minusNanos(gapTimeoutMs * 1_000_000));
+        List<CustomerChangeEvent> events;
+        do {
+            events = getChangesAfter(offset, LATEST_OFFSET_BATCH);
+            if (!events.isEmpty()) {
+                offset = events.get(events.size() - 1).getId();
+            }
+        } while (events.size() == LATEST_OFFSET_BATCH);
+        return offset;
+    }
+
+    // A missing id may belong to a transaction that is still running and commits later with that lower id.
+    // Reading past it would skip that event for good, so the events after it wait until it appears; if the
+    // event after the gap is older than the timeout, the missing id is taken to be rolled back.
+    private List<CustomerChangeEvent> settledPrefix(long offset, List<CustomerChangeEvent> events) {
+        LocalDateTime settled = LocalDateTime.now().minusNanos(gapTimeoutMs * 1_000_000);
+        long expected = offset + 1;
+        for (int i = 0; i < events.size(); i++) {
+            CustomerChangeEvent event = events.get(i);
+            if (event.getId() != expected && event.getCreatedAt().isAfter(settled)) {
+                return events.subList(0, i);
+            }
+            expected = event.getId() + 1;
+        }
+        return events;
+    }
+
+    private CustomerChangeEvent toEvent(ChangeType changeType, String uuid, Customer customer) {
+        try {
+            String payload = customer == null ? null : payloadWriter.writeValueAsString(CustomerResponse.from(customer));
+            return new CustomerChangeEvent(null, uuid, changeType, payload, LocalDateTime.now());
+        } catch (JsonProcessingException e) {
+            throw new ClientManagerException("Failed to serialize customer change: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.entity.Customer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory lookup of customers by email and phone fingerprint; the first customer added for a fingerprint wins.
+ */
+public class CustomerDuplicateIndex {
+
+    private final Map<String, Customer> byEmail = new HashMap<>();
+    private final Map<String, Customer> byPhone = new HashMap<>();
+
+    public void add(Customer customer) {
+        if (customer.getEmailFingerprint() != null) {
+            byEmail.putIfAbsent(customer.getEmailFingerprint(), customer);
+        }
+        if (customer.getPhoneFingerprint() != null) {
+            byPhone.putIfAbsent(customer.getPhoneFingerprint(), customer);
+        }
+    }
+
+    /**
+     * Returns the customer sharing an email fingerprint, else a phone fingerprint, or null.
+     */
+    public Customer find(Customer customer) {
+        Customer match = customer.getEmailFingerprint() == null ? null : byEmail.get(customer.getEmailFingerprint());
+        if (match == null && customer.getPhoneFingerprint() != null) {
+            match = byPhone.get(customer.getPhoneFingerprint());
+        }
+        return match;
+    }
+}
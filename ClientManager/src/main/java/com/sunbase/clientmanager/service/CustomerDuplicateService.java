@@ -0,0 +1,26 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.dto.DuplicateReport;
+import com.sunbase.clientmanager.entity.Customer;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface CustomerDuplicateService {
+
+    enum DuplicatePolicy {
+        REJECT, MERGE, FLAG
+    }
+
+    DuplicatePolicy getPolicy();
+
+    Optional<Customer> findDuplicate(Customer customer);
+
+    CustomerDuplicateIndex indexMatching(List<Customer> customers);
+
+    boolean merge(Customer target, Customer source);
+
+    DuplicateReport getReport(int limit);
+
+    int backfillFingerprints();
+}
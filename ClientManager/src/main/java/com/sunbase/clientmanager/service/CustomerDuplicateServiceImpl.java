@@ -0,0 +1,269 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.dto.DuplicateCluster;
+import com.sunbase.clientmanager.dto.DuplicateReport;
+import com.sunbase.clientmanager.entity.Customer;
+import com.sunbase.clientmanager.exception.ClientManagerException;
+import com.sunbase.clientmanager.repository.CustomerRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Detects customers sharing a normalized email or phone. Lookups go through the indexed fingerprint
+ * columns; the report groups shared fingerprints in the database and joins them with a union-find,
+ * so it stays near-linear in the number of customers instead of comparing every pair.
+ * Checks on create are best-effort under concurrent writes; the report catches what they miss.
+ */
+@Slf4j
+@Service
+public class CustomerDuplicateServiceImpl implements CustomerDuplicateService {
+
+    // Keeps IN lists well below database parameter limits
+    private static final int LOOKUP_CHUNK_SIZE = 500;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    @Value("${clientmanager.duplicates.policy:flag}")
+    private DuplicatePolicy policy;
+
+    @Value("${clientmanager.duplicates.backfill-batch-size:500}")
+    private int backfillBatchSize;
+
+    @Override
+    public DuplicatePolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Retrieves an active customer sharing the email or phone fingerprint of the given customer.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Customer> findDuplicate(Customer customer) {
+        return Optional.ofNullable(indexMatching(List.of(customer)).find(customer));
+    }
+
+    /**
+     * Loads the active customers sharing a fingerprint with any of the given customers, with one query per chunk.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CustomerDuplicateIndex indexMatching(List<Customer> customers) {
+        Set<String> emails = new HashSet<>();
+        Set<String> phones = new HashSet<>();
+        for (Customer customer : customers) {
+            customer.refreshFingerprints();
+            if (customer.getEmailFingerprint() != null) {
+                emails.add(customer.getEmailFingerprint());
+            }
+            if (customer.getPhoneFingerprint() != null) {
+                phones.add(customer.getPhoneFingerprint());
+            }
+        }
+
+        CustomerDuplicateIndex index = new CustomerDuplicateIndex();
+        inChunks(emails, customerRepository::findByEmailFingerprints).forEach(index::add);
+        inChunks(phones, customerRepository::findByPhoneFingerprints).forEach(index::add);
+        return index;
+    }
+
+    /**
+     * Copies the non-blank fields of source into the blank fields of target and returns whether anything changed.
+     */
+    @Override
+    public boolean merge(Customer target, Customer source) {
+        boolean changed = fill(target::getFirstName, target::setFirstName, source.getFirstName());
+        changed |= fill(target::getLastName, target::setLastName, source.getLastName());
+        changed |= fill(target::getStreet, target::setStreet, source.getStreet());
+        changed |= fill(target::getAddress, target::setAddress, source.getAddress());
+        changed |= fill(target::getCity, target::setCity, source.getCity());
+        changed |= fill(target::getState, target::setState, source.getState());
+        changed |= fill(target::getEmail, target::setEmail, source.getEmail());
+        changed |= fill(target::getPhone, target::setPhone, source.getPhone());
+        if (changed) {
+            target.refreshFingerprints();
+        }
+        return changed;
+    }
+
+    /**
+     * Retrieves the clusters of active customers linked by a shared email or phone, largest first.
+     * @throws ClientManagerException if the limit is not positive
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public DuplicateReport getReport(int limit) {
+        if (limit <= 0) {
+            throw new ClientManagerException("Invalid limit: " + limit);
+        }
+
+        UnionFind links = new UnionFind();
+        Map<String, String> emailOf = new HashMap<>();
+        Map<String, String> phoneOf = new HashMap<>();
+        // Customers are matched within a shard; new customers join the shard of the customer they duplicate
+        customerShards.scatter(shard -> inChunks(customerRepository.findSharedEmailFingerprints(),
+                customerRepository::findUuidsByEmailFingerprints)).forEach(rows -> link(links, emailOf, rows));
+        customerShards.scatter(shard -> inChunks(customerRepository.findSharedPhoneFingerprints(),
+                customerRepository::findUuidsByPhoneFingerprints)).forEach(rows -> link(links, phoneOf, rows));
+
+        Map<Integer, List<String>> members = new HashMap<>();
+        for (String uuid : links.keys()) {
+            members.computeIfAbsent(links.find(uuid), root -> new ArrayList<>()).add(uuid);
+        }
+
+        int customerCount = 0;
+        List<DuplicateCluster> clusters = new ArrayList<>(members.size());
+        for (List<String> uuids : members.values()) {
+            Collections.sort(uuids);
+            customerCount += uuids.size();
+            clusters.add(new DuplicateCluster(uuids, fingerprints(uuids, emailOf), fingerprints(uuids, phoneOf)));
+        }
+        clusters.sort(Comparator.comparingInt((DuplicateCluster cluster) -> cluster.uuids().size()).reversed()
+                .thenComparing(cluster -> cluster.uuids().get(0)));
+
+        return new DuplicateReport(clusters.size(), customerCount, clusters.subList(0, Math.min(limit, clusters.size())));
+    }
+
+    /**
+     * Fills the fingerprint columns of customers stored before they existed and returns how many were updated.
+     * Each batch commits on its own; shards are backfilled in parallel.
+     */
+    @Override
+    public int backfillFingerprints() {
+        int total = customerShards.scatter(shard -> backfillShard()).stream().mapToInt(Integer::intValue).sum();
+        log.info("Backfilled fingerprints for {} customers", total);
+        return total;
+    }
+
+    private int backfillShard() {
+        int total = 0;
+        String after = null;
+        List<Customer> batch;
+        do {
+            String cursor = after;
+            batch = transactionTemplate.execute(status -> {
+                Pageable pageable = PageRequest.of(0, backfillBatchSize);
+                List<Customer> customers = cursor == null
+                        ? customerRepository.findWithoutFingerprints(pageable)
+                        : customerRepository.findWithoutFingerprintsAfter(cursor, pageable);
+                customers.forEach(Customer::refreshFingerprints);
+                return customers;
+            });
+            total += (int) batch.stream()
+                    .filter(customer -> customer.getEmailFingerprint() != null || customer.getPhoneFingerprint() != null)
+                    .count();
+            if (!batch.isEmpty()) {
+                after = batch.get(batch.size() - 1).getUuid();
+            }
+        } while (batch.size() == backfillBatchSize);
+        return total;
+    }
+
+    private <T> List<T> inChunks(Collection<String> values, Function<Collection<String>, List<T>> query) {
+        List<String> all = new ArrayList<>(values);
+        List<T> results = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += LOOKUP_CHUNK_SIZE) {
+            results.addAll(query.apply(all.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, all.size()))));
+        }
+        return results;
+    }
+
+    // Joins every customer of a shared fingerprint to the first customer seen with it
+    private void link(UnionFind links, Map<String, String> fingerprintOf, List<Object[]> members) {
+        Map<String, String> firstByFingerprint = new HashMap<>();
+        for (Object[] row : members) {
+            String uuid = (String) row[0];
+            String fingerprint = (String) row[1];
+            fingerprintOf.put(uuid, fingerprint);
+            String first = firstByFingerprint.putIfAbsent(fingerprint, uuid);
+            links.union(first == null ? uuid : first, uuid);
+        }
+    }
+
+    private List<String> fingerprints(List<String> uuids, Map<String, String> fingerprintOf) {
+        return uuids.stream().map(fingerprintOf::get).filter(Objects::nonNull).distinct().sorted().toList();
+    }
+
+    private boolean fill(Supplier<String> current, Consumer<String> setter, String value) {
+        if ((current.get() == null || current.get().isBlank()) && value != null && !value.isBlank()) {
+            setter.accept(value);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Disjoint sets over string keys with path halving and union by size.
+     */
+    private static final class UnionFind {
+
+        private final Map<String, Integer> ids = new LinkedHashMap<>();
+        private int[] parent = new int[16];
+        private int[] size = new int[16];
+
+        Set<String> keys() {
+            return ids.keySet();
+        }
+
+        int find(String key) {
+            return root(id(key));
+        }
+
+        void union(String a, String b) {
+            int rootA = root(id(a));
+            int rootB = root(id(b));
+            if (rootA == rootB) {
+                return;
+            }
+            if (size[rootA] < size[rootB]) {
+                int swap = rootA;
+                rootA = rootB;
+                rootB = swap;
+            }
+            parent[rootB] = rootA;
+            size[rootA] += size[rootB];
+        }
+
+        private int id(String key) {
+            Integer existing = ids.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            int id = ids.size();
+            if (id == parent.length) {
+                parent = Arrays.copyOf(parent, id * 2);
+                size = Arrays.copyOf(size, id * 2);
+            }
+            parent[id] = id;
+            size[id] = 1;
+            ids.put(key, id);
+            return id;
+        }
+
+        private int root(int x) {
+            while (parent[x] != x) {
+                parent[x] = parent[parent[x]];
+                x = parent[x];
+            }
+            return x;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.repository.CustomerRepository;
+import com.sunbase.clientmanager.repository.CustomerTombstoneRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Hard-deletes soft-deleted customers in the background, leaving a narrow tombstone behind.
+ */
+@Slf4j
+@Component
+public class CustomerPurger {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerTombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    @Value("${clientmanager.purge.batch-size:500}")
+    private int batchSize;
+
+    @Value("${clientmanager.purge.grace-minutes:60}")
+    private long graceMinutes;
+
+    /**
+     * Purges customers deleted longer than the grace period ago, shard by shard.
+     * Each batch commits on its own so row locks are held only briefly.
+     */
+    @Scheduled(fixedDelayString = "${clientmanager.purge.interval-ms:60000}")
+    public void purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(graceMinutes);
+        customerShards.forEachShard(shard -> {
+            int total = 0;
+            int purged;
+            do {
+                purged = transactionTemplate.execute(status -> purgeBatch(cutoff));
+                total += purged;
+            } while (purged == batchSize);
+
+            if (total > 0) {
+                log.info("Purged {} deleted customers from shard {}", total, shard);
+            }
+        });
+    }
+
+    private int purgeBatch(LocalDateTime cutoff) {
+        List<Object> uuids = customerRepository.findDeletedBefore(cutoff, batchSize);
+        if (uuids.isEmpty()) {
+            return 0;
+        }
+        tombstoneRepository.copyFromCustomers(uuids);
+        customerRepository.purgeAllById(uuids);
+        return uuids.size();
+    }
+}
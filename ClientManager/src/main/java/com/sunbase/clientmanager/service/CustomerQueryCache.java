@@ -0,0 +1,158 @@
+package com.sunbase.clientmanager.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sunbase.clientmanager.configuration.ShardContext;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Shares customer list results between identical queries. Concurrent callers of the same query wait for a
+ * single execution, up to a bounded time after which they run the query themselves; results are then kept
+ * for a short time (pages) or longer (totals).
+ * Every key carries the write generation, so a committed customer write makes all earlier results and
+ * in-flight executions unreachable. With read replicas enabled, an execution after the write may still
+ * read a lagging replica, so results are only shared while in flight and never kept.
+ * With sharding, keys also carry the bound shard, since each shard answers the same query differently.
+ * Cached results are shared between callers and must not be modified.
+ */
+@Slf4j
+@Component
+public class CustomerQueryCache {
+
+    @Value("${clientmanager.query-cache.page-ttl-ms:300}")
+    private long pageTtlMs;
+
+    @Value("${clientmanager.query-cache.count-ttl-ms:30000}")
+    private long countTtlMs;
+
+    @Value("${clientmanager.query-cache.max-entries:10000}")
+    private long maxEntries;
+
+    @Value("${clientmanager.query-cache.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
+
+    @Value("${clientmanager.replica.enabled:false}")
+    private boolean replicaReads;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final ConcurrentMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private Cache<Key, Object> pages;
+    private Cache<Key, Object> counts;
+
+    private record Key(long generation, Integer shard, Object query) {
+    }
+
+    @PostConstruct
+    public void init() {
+        pages = newCache(pageTtlMs);
+        counts = newCache(countTtlMs);
+        if (replicaReads) {
+            log.info("Customer query cache: read replicas enabled, only identical in-flight queries are shared");
+        } else {
+            log.info("Customer query cache: pages for {} ms, counts for {} ms", pageTtlMs, countTtlMs);
+        }
+    }
+
+    /**
+     * Returns the page for the query, running the loader only if no identical query is cached or in flight.
+     */
+    public <T> T page(Object query, Supplier<T> loader) {
+        return load(pages, query, loader);
+    }
+
+    /**
+     * Returns the total for the query, running the loader only if no identical count is cached or in flight.
+     */
+    public long count(Object query, Supplier<Long> loader) {
+        return load(counts, query, loader);
+    }
+
+    /**
+     * Drops every cached result once the current transaction commits, or immediately outside a transaction.
+     */
+    public void invalidateAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate();
+            }
+        });
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        pages.invalidateAll();
+        counts.invalidateAll();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T load(Cache<Key, Object> cache, Object query, Supplier<T> loader) {
+        Key key = new Key(generation.get(), ShardContext.current(), query);
+        Object cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            return (T) join(leader, loader);
+        }
+        try {
+            T result = loader.get();
+            if (!replicaReads) {
+                cache.put(key, result);
+            }
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    // Rethrows the leader's failure unwrapped, so followers see the same exception type. A follower that
+    // waited too long runs the query itself; the copy keeps its timeout from completing the leader's future
+    private Object join(CompletableFuture<Object> leader, Supplier<?> loader) {
+        try {
+            return leader.copy().orTimeout(waitTimeoutMs, TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                log.warn("Shared customer query still running after {} ms, running it again", waitTimeoutMs);
+                return loader.get();
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Cache<Key, Object> newCache(long ttlMs) {
+        return Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .maximumSize(ttlMs > 0 ? maxEntries : 0)
+                .build();
+    }
+}
@@ -1,9 +1,13 @@
 package com.sunbase.clientmanager.service;
 
+import com.sunbase.clientmanager.dto.CustomerFilter;
 import com.sunbase.clientmanager.dto.Password;
 import com.sunbase.clientmanager.entity.Customer;
 import org.springframework.data.domain.Page;
 
+import java.util.List;
+import java.util.Map;
+
 
 public interface CustomerService {
 
@@ -12,11 +16,17 @@ public interface CustomerService {
 
     Customer updateCustomer(String uuid, Customer customer);
 
+    Customer patchCustomer(String uuid, Map<String, Object> patch, Long expectedVersion);
+
     Page<Customer> getAllCustomers(int page, int size, String sort, String search);
 
+    Page<Customer> searchCustomers(CustomerFilter filter, int page, int size, String sortBy, String direction);
+
     Customer getCustomerById(String uuid);
 
     void deleteCustomer(String uuid);
 
+    int deleteCustomers(List<String> uuids);
+
     String syncData(Password password);
 }
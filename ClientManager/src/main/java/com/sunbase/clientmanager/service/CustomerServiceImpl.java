@@ -1,41 +1,104 @@
 package com.sunbase.clientmanager.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.sunbase.clientmanager.configuration.ShardContext;
 import com.sunbase.clientmanager.dto.CustomerDTO;
+import com.sunbase.clientmanager.dto.CustomerFilter;
 import com.sunbase.clientmanager.dto.Password;
 import com.sunbase.clientmanager.entity.Customer;
+import com.sunbase.clientmanager.entity.CustomerChangeEvent.ChangeType;
+import com.sunbase.clientmanager.entity.CustomerRemoteDuplicate;
+import com.sunbase.clientmanager.entity.CustomerRemoteDuplicate.Resolution;
+import com.sunbase.clientmanager.entity.CustomerSyncRun;
 import com.sunbase.clientmanager.exception.ClientManagerException;
+import com.sunbase.clientmanager.repository.CustomerRemoteDuplicateRepository;
 import com.sunbase.clientmanager.repository.CustomerRepository;
+import com.sunbase.clientmanager.repository.CustomerSpecifications;
+import com.sunbase.clientmanager.repository.CustomerSyncRunRepository;
+import com.sunbase.clientmanager.repository.CustomerTombstoneRepository;
+import com.sunbase.clientmanager.service.CustomerDuplicateService.DuplicatePolicy;
+import com.sunbase.clientmanager.type.CustomerIdCodec;
+import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.*;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.http.*;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 @Service
+@Slf4j
 public class CustomerServiceImpl implements CustomerService {
 
     @Autowired
     private CustomerRepository customerRepository;
     @Autowired
+    private CustomerTombstoneRepository tombstoneRepository;
+    @Autowired
+    private CustomerRemoteDuplicateRepository remoteDuplicateRepository;
+    @Autowired
+    private CustomerSyncRunRepository syncRunRepository;
+    @Autowired
     AuthService authService;
 
-    private static final String REMOTE_API_URL = "https://qa.sunbasedata.com/sunbase/portal/api/assignment.jsp?cmd=get_customer_list";
-    private static final String AUTH_URL = "https://qa.sunbasedata.com/sunbase/portal/api/assignment_auth.jsp";
+    private static final Set<String> SORTABLE_FIELDS =
+            Set.of("uuid", "firstName", "lastName", "city", "state", "email", "phone");
+
+    // Fields a JSON Merge Patch may set; the id, duplicate link and version are managed by the service
+    private static final Map<String, PatchableField> PATCHABLE_FIELDS = Map.of(
+            "firstName", new PatchableField(Customer::getFirstName, Customer::setFirstName),
+            "lastName", new PatchableField(Customer::getLastName, Customer::setLastName),
+            "street", new PatchableField(Customer::getStreet, Customer::setStreet),
+            "address", new PatchableField(Customer::getAddress, Customer::setAddress),
+            "city", new PatchableField(Customer::getCity, Customer::setCity),
+            "state", new PatchableField(Customer::getState, Customer::setState),
+            "email", new PatchableField(Customer::getEmail, Customer::setEmail),
+            "phone", new PatchableField(Customer::getPhone, Customer::setPhone));
+
+    @Value("${clientmanager.sync.remote-url:https://qa.sunbasedata.com/sunbase/portal/api/assignment.jsp?cmd=get_customer_list}")
+    private String remoteApiUrl;
+
+    @Value("${clientmanager.sync.auth-url:https://qa.sunbasedata.com/sunbase/portal/api/assignment_auth.jsp}")
+    private String authUrl;
+
+    @Value("${clientmanager.sync.chunk-size:500}")
+    private int syncChunkSize;
+
+    @Value("${clientmanager.sync.stale-after-ms:300000}")
+    private long syncStaleAfterMs;
 
     @Autowired
     private RestTemplate restTemplate;
@@ -46,40 +109,168 @@ public class CustomerServiceImpl implements CustomerService {
     @Autowired
     PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private CustomerChangeService changeService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CustomerIdCodec customerIdCodec;
+
+    @Autowired
+    private CustomerAggregateService aggregateService;
+
+    @Autowired
+    private CustomerDuplicateService duplicateService;
+
+    @Autowired
+    private CustomerQueryCache queryCache;
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // List and search loads run in their own read-only transaction, so callers waiting on a shared load hold no connection
+    private TransactionTemplate readOnlyTransactionTemplate;
+
+    // Readers are immutable and cache their root deserializer, so one instance serves every sync
+    private ObjectReader remoteCustomersReader;
+
+    private record ListQuery(String field, String value, Pageable pageable) {
+    }
+
+    private record ListCount(String field, String value) {
+    }
+
+    private record SearchQuery(CustomerFilter filter, Pageable pageable) {
+    }
+
+    private record PatchableField(Function<Customer, String> getter, BiConsumer<Customer, String> setter) {
+    }
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readOnlyTransactionTemplate.setReadOnly(true);
+        remoteCustomersReader = objectMapper.readerFor(new TypeReference<List<CustomerDTO>>() {});
+    }
+
     /**
-     * Creates a new customer.
+     * Creates a new customer, applying the duplicate policy when its email or phone matches an existing customer.
+     * @throws ClientManagerException if the customer is a duplicate and the policy is reject
      */
     @Override
+    @Transactional
     public Customer createCustomer(Customer customer) {
-        // Generate UUID without hyphens
-        String hexCode = UUID.randomUUID().toString().replace("-", "");
-
-        // Prefix the UUID with "test"
-        String customUuid = "test" + hexCode;
+        customer.setDuplicateOf(null);
+        Customer duplicate = duplicateService.findDuplicate(customer).orElse(null);
+        if (duplicate != null) {
+            switch (duplicateService.getPolicy()) {
+                case REJECT -> throw new ClientManagerException(
+                        "Customer duplicates existing customer with ID: " + duplicate.getUuid());
+                case MERGE -> {
+                    return mergeCustomer(duplicate, customer);
+                }
+                case FLAG -> customer.setDuplicateOf(duplicate.getUuid());
+            }
+        }
 
-        // Set the custom UUID to the customer
-        customer.setUuid(customUuid);
+        // Time-ordered UUID without hyphens, prefixed with "test", owned by the shard this runs against
+        customer.setUuid(customerShards.newId());
 
-        // Save and return the customer
-        return customerRepository.save(customer);
+        // Save the customer and record the change in the same transaction
+        Customer savedCustomer = customerRepository.save(customer);
+        changeService.recordChange(ChangeType.CREATED, savedCustomer);
+        queryCache.invalidateAfterCommit();
+        aggregateService.recordAdded(List.of(savedCustomer));
+        return savedCustomer;
     }
 
     /**
-     * Updates an existing customer.
+     * Updates an existing customer, replacing every field. A version on the customer makes the update
+     * conditional on the stored version; without one the update always applies.
      * @throws ClientManagerException if the customer is not found
+     * @throws ObjectOptimisticLockingFailureException if the customer was changed since the given version
      */
     @Override
+    @Transactional
     public Customer updateCustomer(String uuid, Customer customer) {
 
-        if (!customerRepository.existsById(uuid)) {
-            throw new ClientManagerException("Customer not found with ID: " + uuid);
-        }
+        // Loaded through the second-level cache, so the merge in save does not select the row again
+        Customer existing = findActive(uuid);
+        checkVersion(existing, customer.getVersion());
+        String oldCity = existing.getCity();
+        String oldState = existing.getState();
+
         customer.setUuid(uuid);
-        return customerRepository.save(customer);
+        customer.setDuplicateOf(existing.getDuplicateOf());
+        customer.setVersion(existing.getVersion());
+        // Flushed here so the change event and the response carry the incremented version
+        Customer savedCustomer = customerRepository.saveAndFlush(customer);
+        changeService.recordChange(ChangeType.UPDATED, savedCustomer);
+        queryCache.invalidateAfterCommit();
+        aggregateService.recordMoved(oldCity, oldState, savedCustomer);
+        return savedCustomer;
+    }
+
+    /**
+     * Applies a JSON Merge Patch (RFC 7396) to a customer: fields present in the patch are set, null clears them,
+     * and the rest are kept. Only the changed columns are written, in one UPDATE checked against the version.
+     * @throws ClientManagerException if the customer is not found or the patch has an unknown or non-text field
+     * @throws ObjectOptimisticLockingFailureException if the customer was changed since the expected version
+     */
+    @Override
+    @Transactional
+    public Customer patchCustomer(String uuid, Map<String, Object> patch, Long expectedVersion) {
+        Customer customer = findActive(uuid);
+        checkVersion(customer, expectedVersion);
+        String oldCity = customer.getCity();
+        String oldState = customer.getState();
+
+        boolean changed = false;
+        for (Map.Entry<String, Object> entry : patch.entrySet()) {
+            PatchableField field = PATCHABLE_FIELDS.get(entry.getKey());
+            if (field == null) {
+                throw new ClientManagerException("Unknown customer field: " + entry.getKey());
+            }
+            if (entry.getValue() != null && !(entry.getValue() instanceof String)) {
+                throw new ClientManagerException("Customer field must be text or null: " + entry.getKey());
+            }
+            String value = (String) entry.getValue();
+            if (!Objects.equals(field.getter().apply(customer), value)) {
+                field.setter().accept(customer, value);
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return customer;
+        }
+
+        Customer savedCustomer = customerRepository.saveAndFlush(customer);
+        changeService.recordChange(ChangeType.UPDATED, savedCustomer);
+        queryCache.invalidateAfterCommit();
+        aggregateService.recordMoved(oldCity, oldState, savedCustomer);
+        return savedCustomer;
+    }
+
+    private Customer findActive(String uuid) {
+        return customerRepository.findById(uuid)
+                .filter(found -> !found.isDeleted())
+                .orElseThrow(() -> new ClientManagerException("Customer not found with ID: " + uuid));
+    }
+
+    private void checkVersion(Customer customer, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(customer.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Customer.class, customer.getUuid());
+        }
     }
 
     /**
      * Retrieves all customers with pagination, sorting, and searching.
+     * Identical concurrent requests share one execution, and the total is cached separately from the page.
      * @throws ClientManagerException if Invalid pagination or sorting parameters.
      */
     @Override
@@ -90,89 +281,402 @@ public class CustomerServiceImpl implements CustomerService {
         }
 
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortBy));
+        String field = sortBy.toLowerCase();
+
+        return queryCache.page(new ListQuery(field, value, pageable), () -> readOnlyTransactionTemplate.execute(status -> {
+            Slice<Customer> slice = switch (field) {
+                case "firstname" -> customerRepository.findByFirstName(value, pageable);
+                case "city" -> customerRepository.findByCity(value, pageable);
+                case "email" -> customerRepository.findByEmail(value, pageable);
+                case "phone" -> customerRepository.findByPhone(value, pageable);
+                default -> customerRepository.findSlice(pageable);
+            };
+            return PageableExecutionUtils.getPage(slice.getContent(), pageable, () -> countCustomers(field, value));
+        }));
+    }
 
-        switch (sortBy.toLowerCase()) {
-            case "firstname":
-                return customerRepository.findByFirstName(value, pageable);
-            case "city":
-                return customerRepository.findByCity(value, pageable);
-            case "email":
-                return customerRepository.findByEmail(value, pageable);
-            case "phone":
-                return customerRepository.findByPhone(value, pageable);
-            default:
-                return customerRepository.findAll(pageable);
-        }
+    private long countCustomers(String field, String value) {
+        return switch (field) {
+            case "firstname" -> queryCache.count(new ListCount(field, value), () -> customerRepository.countByFirstName(value));
+            case "city" -> queryCache.count(new ListCount(field, value), () -> customerRepository.countByCity(value));
+            case "email" -> queryCache.count(new ListCount(field, value), () -> customerRepository.countByEmail(value));
+            case "phone" -> queryCache.count(new ListCount(field, value), () -> customerRepository.countByPhone(value));
+            default -> queryCache.count(new ListCount("", null), () -> customerRepository.count());
+        };
     }
 
 
+    /**
+     * Retrieves customers matching every given filter, sorted independently of the filters.
+     * Identical concurrent searches share one execution, and the total is cached per filter.
+     * @throws ClientManagerException if Invalid pagination or sorting parameters.
+     */
+    @Override
+    public Page<Customer> searchCustomers(CustomerFilter filter, int page, int size, String sortBy, String direction) {
+
+        if (page < 0 || size <= 0 || !SORTABLE_FIELDS.contains(sortBy)) {
+            throw new ClientManagerException("Invalid pagination or sorting parameters.");
+        }
+
+        Sort sort = Sort.by(Sort.Direction.fromOptionalString(direction).orElse(Sort.Direction.ASC), sortBy);
+        Pageable pageable = PageRequest.of(page, size, sort);
+        Specification<Customer> specification = CustomerSpecifications.matching(filter);
+
+        return queryCache.page(new SearchQuery(filter, pageable), () -> readOnlyTransactionTemplate.execute(status ->
+                PageableExecutionUtils.getPage(customerRepository.findSlice(specification, pageable).getContent(),
+                        pageable, () -> queryCache.count(filter, () -> customerRepository.count(specification)))));
+    }
+
     /**
      * Retrieves a customer by ID.
      * @throws ClientManagerException if the customer is not found
      */
     @Override
+    @Transactional(readOnly = true)
     public Customer getCustomerById(String uuid) {
         if (uuid == null) {
             throw new ClientManagerException("Customer ID cannot be null.");
         }
         return customerRepository.findById(uuid)
+                .filter(customer -> !customer.isDeleted())
                 .orElseThrow(() -> new ClientManagerException("Customer not found with ID: " + uuid));
     }
 
 
     /**
-     * Deletes a customer by ID.
+     * Soft-deletes a customer by ID; the row is hard-deleted later by the purger.
      * @throws ClientManagerException if the customer is not found or UUID is null
      */
     @Override
+    @Transactional
     public void deleteCustomer(String uuid) {
         if (uuid == null) {
             throw new ClientManagerException("Customer ID cannot be null.");
         }
-        if (!customerRepository.existsById(uuid)) {
+        // The city and state are needed for the aggregates; the lookup is usually a second-level cache hit
+        Customer customer = customerRepository.findById(uuid)
+                .filter(found -> !found.isDeleted())
+                .orElseThrow(() -> new ClientManagerException("Customer not found with ID: " + uuid));
+        if (customerRepository.softDeleteById(uuid, LocalDateTime.now()) == 0) {
             throw new ClientManagerException("Customer not found with ID: " + uuid);
         }
-        customerRepository.deleteById(uuid);
+        changeService.recordDeletion(uuid);
+        queryCache.invalidateAfterCommit();
+        aggregateService.recordRemoved(List.of(customer));
+    }
+
+    /**
+     * Soft-deletes all active customers among the given IDs and returns how many were deleted.
+     * @throws ClientManagerException if no IDs are given
+     */
+    @Override
+    @Transactional
+    public int deleteCustomers(List<String> uuids) {
+        if (uuids == null || uuids.isEmpty()) {
+            throw new ClientManagerException("Customer IDs cannot be empty.");
+        }
+        List<Customer> activeCustomers = customerRepository.findAllById(new HashSet<>(uuids));
+        if (activeCustomers.isEmpty()) {
+            return 0;
+        }
+        List<String> activeUuids = activeCustomers.stream().map(Customer::getUuid).toList();
+        int deleted = customerRepository.softDeleteAllById(activeUuids, LocalDateTime.now());
+        activeUuids.forEach(changeService::recordDeletion);
+        queryCache.invalidateAfterCommit();
+        aggregateService.recordRemoved(activeCustomers);
+        return deleted;
     }
 
 
     /**
      * Syncs data by fetching customers from a remote API and saving unique customers to the database.
-     * @throws ClientManagerException if no customer to update
+     * The run is checkpointed per chunk, so a run that failed or was killed resumes where it stopped.
+     * @throws ClientManagerException if no customer to update, or if a chunk fails (running it again resumes)
      */
     @Override
     public String syncData(Password password) {
+        int added = syncRemoteCustomers(fetchRemoteCustomers(password));
+
+        if (added == 0) {
+            throw new ClientManagerException("No Customers to update");
+        }
+
+        return added + " customers added successfully";
+    }
+
+    /**
+     * Fetches the customer list from the remote API with the current user's credentials.
+     * @throws ClientManagerException if the token or the customers cannot be fetched
+     */
+    public List<CustomerDTO> fetchRemoteCustomers(Password password) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getPrincipal().toString();
 
         String token = getToken(username, password.password());
 
-        List<CustomerDTO> remoteCustomers = fetchCustomersFromRemoteApi(token);
+        return fetchCustomersFromRemoteApi(token);
+    }
+
+    /**
+     * Saves the remote customers not stored locally in chunks, each committed together with the run's checkpoint,
+     * and returns how many customers the run added. An unfinished run over the same list is resumed at its
+     * checkpoint; the chunks are idempotent, so a list that changed in between is simply synced from the start.
+     * @throws ClientManagerException if another sync is still running, or if a chunk cannot be saved; the run
+     * is then marked failed and can be resumed
+     */
+    public int syncRemoteCustomers(List<CustomerDTO> remoteCustomers) {
+        if (remoteCustomers.isEmpty()) {
+            return 0;
+        }
+
+        String owner = UUID.randomUUID().toString();
+        CustomerSyncRun run = transactionTemplate.execute(status -> startSyncRun(remoteCustomers, owner));
+        if (run.getNextOffset() > 0) {
+            log.info("Resuming sync run {} at {} of {} customers (attempt {})",
+                    run.getId(), run.getNextOffset(), run.getTotal(), run.getAttempts());
+        }
+
+        while (run.getNextOffset() < run.getTotal()) {
+            int from = run.getNextOffset();
+            List<CustomerDTO> chunk = remoteCustomers.subList(from, Math.min(from + syncChunkSize, run.getTotal()));
+            Long runId = run.getId();
+            try {
+                // Only the writes run in a transaction; the remote calls do not hold a connection
+                run = transactionTemplate.execute(status -> saveSyncChunk(runId, owner, from, chunk));
+            } catch (RuntimeException e) {
+                transactionTemplate.executeWithoutResult(status -> failSyncRun(runId, owner, e));
+                throw new ClientManagerException("Sync stopped after " + from + " of " + run.getTotal()
+                        + " customers, run it again to resume: " + e.getMessage());
+            }
+        }
+
+        log.info("Sync run {} completed: {} added, {} skipped in {} attempts",
+                run.getId(), run.getAdded(), run.getSkipped(), run.getAttempts());
+        return run.getAdded();
+    }
+
+    // Resumes the latest run if it was left unfinished over the same list, otherwise starts a new one.
+    // A running run is left alone until its heartbeat is stale, since its sync may still be working on it
+    private CustomerSyncRun startSyncRun(List<CustomerDTO> remoteCustomers, String owner) {
+        String snapshot = snapshotOf(remoteCustomers);
+        CustomerSyncRun latest = syncRunRepository.findFirstByOrderByIdDesc().orElse(null);
+        if (latest != null && latest.getStatus() == CustomerSyncRun.Status.RUNNING
+                && latest.getUpdatedAt().isAfter(LocalDateTime.now().minusNanos(syncStaleAfterMs * 1_000_000))) {
+            throw new ClientManagerException("Sync run " + latest.getId() + " is still in progress at "
+                    + latest.getNextOffset() + " of " + latest.getTotal() + " customers.");
+        }
+        if (latest != null && (latest.getStatus() == CustomerSyncRun.Status.RUNNING || latest.getStatus() == CustomerSyncRun.Status.FAILED)) {
+            latest.setUpdatedAt(LocalDateTime.now());
+            if (latest.getSnapshot().equals(snapshot) && latest.getTotal() == remoteCustomers.size()) {
+                latest.setStatus(CustomerSyncRun.Status.RUNNING);
+                latest.setOwner(owner);
+                latest.setAttempts(latest.getAttempts() + 1);
+                latest.setLastError(null);
+                return latest;
+            }
+            latest.setStatus(CustomerSyncRun.Status.SUPERSEDED);
+        }
+        return syncRunRepository.save(new CustomerSyncRun(snapshot, remoteCustomers.size(), owner));
+    }
+
+    // Saves one chunk and advances the checkpoint in the same transaction. The checkpoint must still be where
+    // this sync left it; the version check fails the commit if another sync took the run over meanwhile
+    private CustomerSyncRun saveSyncChunk(Long runId, String owner, int from, List<CustomerDTO> chunk) {
+        CustomerSyncRun run = syncRunRepository.findById(runId).orElseThrow();
+        if (run.getStatus() != CustomerSyncRun.Status.RUNNING || !owner.equals(run.getOwner()) || run.getNextOffset() != from) {
+            throw new ClientManagerException("Sync run " + runId + " was taken over by another sync.");
+        }
+
+        List<Customer> newCustomers = findNewCustomers(chunk);
+        int added = newCustomers.isEmpty() ? 0 : saveSyncedCustomers(newCustomers);
+
+        run.setNextOffset(from + chunk.size());
+        run.setAdded(run.getAdded() + added);
+        run.setSkipped(run.getSkipped() + chunk.size() - added);
+        run.setUpdatedAt(LocalDateTime.now());
+        if (run.getNextOffset() == run.getTotal()) {
+            run.setStatus(CustomerSyncRun.Status.COMPLETED);
+        }
+        return run;
+    }
+
+    private void failSyncRun(Long runId, String owner, RuntimeException e) {
+        String message = String.valueOf(e.getMessage());
+        syncRunRepository.findById(runId)
+                .filter(run -> owner.equals(run.getOwner()) && run.getStatus() == CustomerSyncRun.Status.RUNNING)
+                .ifPresent(run -> {
+                    run.setStatus(CustomerSyncRun.Status.FAILED);
+                    run.setLastError(message.length() > 500 ? message.substring(0, 500) : message);
+                    run.setUpdatedAt(LocalDateTime.now());
+                });
+    }
+
+    // Identifies the remote list by its ids in order, which is all a checkpoint offset depends on
+    private static String snapshotOf(List<CustomerDTO> remoteCustomers) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (CustomerDTO rc : remoteCustomers) {
+                digest.update(String.valueOf(rc.uuid()).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
-        List<Customer> localCustomers = customerRepository.findAll();
-        Set<String> localCustomerUUIDs = localCustomers.stream()
-                .map(Customer::getUuid)
-                .collect(Collectors.toSet());
+    /**
+     * Converts the remote customers not yet stored locally, skipping ids that cannot be stored.
+     * Only the given customers' ids are looked up, so the cost follows the size of the list, not of the table.
+     */
+    public List<Customer> findNewCustomers(List<CustomerDTO> remoteCustomers) {
+        List<String> storableUuids = remoteCustomers.stream()
+                .map(CustomerDTO::uuid)
+                .filter(customerIdCodec::isStorable)
+                .distinct()
+                .toList();
+
+        // Deleted customers, both tombstoned and already purged, count as known so they are not re-inserted,
+        // and so do remote customers an earlier sync merged or rejected as duplicates
+        Set<String> knownUuids = new HashSet<>();
+        if (!storableUuids.isEmpty()) {
+            customerRepository.findUuidsIncludingDeleted(storableUuids.stream().map(customerIdCodec::toDatabase).toList())
+                    .forEach(uuid -> knownUuids.add(customerIdCodec.fromDatabase(uuid)));
+            knownUuids.addAll(tombstoneRepository.findUuidsIn(storableUuids));
+            knownUuids.addAll(remoteDuplicateRepository.findRemoteUuidsIn(storableUuids));
+        }
 
-        // Filter out new customers that are not present in the local database
+        // Filter out new customers that are not present in the local database, or repeated in the remote list
         List<Customer> newCustomers = new ArrayList<>();
         for (CustomerDTO rc : remoteCustomers) {
-            if (!localCustomerUUIDs.contains(rc.getUuid())) {
+            if (!customerIdCodec.isStorable(rc.uuid())) {
+                log.warn("Skipping remote customer with an ID that cannot be stored: {}", rc.uuid());
+                continue;
+            }
+            if (knownUuids.add(rc.uuid())) {
                 Customer customer = new Customer(
-                        rc.getUuid(), rc.getFirstName(), rc.getLastName(),
-                        rc.getStreet(), rc.getAddress(), rc.getCity(),
-                        rc.getState(), rc.getEmail(), rc.getPhone());
+                        rc.uuid(), rc.firstName(), rc.lastName(),
+                        rc.street(), rc.address(), rc.city(),
+                        rc.state(), rc.email(), rc.phone(), null, null, null, null, null);
                 newCustomers.add(customer);
             }
         }
+        return newCustomers;
+    }
 
-        if (newCustomers.isEmpty()) {
-            throw new ClientManagerException("No Customers to update");
+    // Fills the blank fields of a matching customer instead of creating a new one
+    private Customer mergeCustomer(Customer existing, Customer customer) {
+        String oldCity = existing.getCity();
+        String oldState = existing.getState();
+        if (duplicateService.merge(existing, customer)) {
+            // Flushed so the response carries the incremented version
+            customerRepository.flush();
+            changeService.recordChange(ChangeType.UPDATED, existing);
+            queryCache.invalidateAfterCommit();
+            aggregateService.recordMoved(oldCity, oldState, existing);
         }
+        return existing;
+    }
 
-        List<Customer> savedCustomers = customerRepository.saveAll(newCustomers);
+    // Applies the duplicate policy against existing customers and earlier customers of the same batch
+    private int saveSyncedCustomers(List<Customer> newCustomers) {
+        DuplicatePolicy policy = duplicateService.getPolicy();
+        CustomerDuplicateIndex index = duplicateService.indexMatching(newCustomers);
+        List<CustomerDuplicateIndex> otherShards = indexOtherShards(newCustomers);
+        // Merges into customers of other shards, by shard, applied there since their rows are not in this transaction
+        Map<Integer, List<Customer[]>> otherShardMerges = new HashMap<>();
+        Set<Customer> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+        // Existing customers changed by a merge, with their city and state before it
+        Map<Customer, String[]> mergedLocations = new IdentityHashMap<>();
+        // Remote ids absorbed by the policy, recorded so the next sync does not match them again
+        List<CustomerRemoteDuplicate> absorbed = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        for (Customer customer : newCustomers) {
+            Customer duplicate = index.find(customer);
+            int duplicateShard = -1;
+            for (int shard = 0; duplicate == null && shard < otherShards.size(); shard++) {
+                duplicate = otherShards.get(shard).find(customer);
+                duplicateShard = shard;
+            }
+            if (duplicate == null) {
+                index.add(customer);
+                pending.add(customer);
+                continue;
+            }
+            switch (policy) {
+                case REJECT -> absorbed.add(new CustomerRemoteDuplicate(
+                        customer.getUuid(), duplicate.getUuid(), Resolution.REJECTED, now));
+                case MERGE -> {
+                    if (duplicateShard >= 0) {
+                        otherShardMerges.computeIfAbsent(duplicateShard, shard -> new ArrayList<>())
+                                .add(new Customer[]{duplicate, customer});
+                    } else {
+                        String[] location = {duplicate.getCity(), duplicate.getState()};
+                        if (duplicateService.merge(duplicate, customer) && !pending.contains(duplicate)) {
+                            mergedLocations.putIfAbsent(duplicate, location);
+                        }
+                    }
+                    absorbed.add(new CustomerRemoteDuplicate(
+                            customer.getUuid(), duplicate.getUuid(), Resolution.MERGED, now));
+                }
+                case FLAG -> {
+                    customer.setDuplicateOf(duplicate.getUuid());
+                    pending.add(customer);
+                }
+            }
+        }
+
+        if (!otherShardMerges.isEmpty()) {
+            mergeOnOtherShards(otherShardMerges);
+        }
 
-        return savedCustomers.size() + " customers added successfully";
+        List<Customer> saved = customerRepository.saveAll(
+                newCustomers.stream().filter(pending::contains).toList());
+        changeService.recordChanges(ChangeType.SYNCED, saved);
+        aggregateService.recordAdded(saved);
+        queryCache.invalidateAfterCommit();
+        if (!mergedLocations.isEmpty()) {
+            // Flushed so the change events carry the incremented versions of the merged customers
+            customerRepository.flush();
+        }
+        mergedLocations.forEach((customer, location) -> {
+            changeService.recordChange(ChangeType.UPDATED, customer);
+            aggregateService.recordMoved(location[0], location[1], customer);
+        });
+
+        if (!absorbed.isEmpty()) {
+            remoteDuplicateRepository.saveAll(absorbed);
+            log.info("Sync found {} duplicates, policy {}", absorbed.size(), policy);
+        }
+        return saved.size();
+    }
+
+    // Remote customers are placed on the shard their id maps to, not the shard of their duplicate, so the
+    // duplicate lookup also asks every other shard; the shard itself gets an empty index
+    private List<CustomerDuplicateIndex> indexOtherShards(List<Customer> newCustomers) {
+        Integer current = ShardContext.current();
+        if (!customerShards.isEnabled() || current == null) {
+            return List.of();
+        }
+        return customerShards.scatter(shard -> shard == current
+                ? new CustomerDuplicateIndex()
+                : duplicateService.indexMatching(newCustomers));
+    }
+
+    // Each shard merges in its own transaction before the chunk commits; a failure fails the chunk, and the
+    // merge fills blank fields only, so a resumed chunk merging again changes nothing
+    private void mergeOnOtherShards(Map<Integer, List<Customer[]>> merges) {
+        customerShards.scatter(shard -> {
+            List<Customer[]> shardMerges = merges.get(shard);
+            if (shardMerges != null) {
+                transactionTemplate.executeWithoutResult(status -> shardMerges.forEach(merge ->
+                        customerRepository.findById(merge[0].getUuid())
+                                .filter(existing -> !existing.isDeleted())
+                                .ifPresent(existing -> mergeCustomer(existing, merge[1]))));
+            }
+            return null;
+        });
     }
 
     /**
@@ -186,17 +690,14 @@ public class CustomerServiceImpl implements CustomerService {
             headers.setContentType(MediaType.APPLICATION_JSON);
             headers.set(HttpHeaders.AUTHORIZATION, "Bearer " + token);
 
-            HttpEntity<Void> entity = new HttpEntity<>(headers);
-
-            // Execute the API call with headers
-            ResponseEntity<List<CustomerDTO>> responseEntity = restTemplate.exchange(
-                    REMOTE_API_URL,
+            // Execute the API call with headers, binding the response stream directly to the records
+            List<CustomerDTO> customers = restTemplate.execute(
+                    remoteApiUrl,
                     HttpMethod.GET,
-                    entity,
-                    new ParameterizedTypeReference<List<CustomerDTO>>() {}
+                    request -> request.getHeaders().putAll(headers),
+                    response -> remoteCustomersReader.<List<CustomerDTO>>readValue(response.getBody())
             );
 
-            List<CustomerDTO> customers = responseEntity.getBody();
             if (customers == null || customers.isEmpty()) {
                 throw new ClientManagerException("No customers found in the response from the remote API.");
             }
@@ -224,14 +725,13 @@ public class CustomerServiceImpl implements CustomerService {
         try {
             // Make the POST request and get the response
             ResponseEntity<String> responseEntity = restTemplate.exchange(
-                    AUTH_URL,
+                    authUrl,
                     HttpMethod.POST,
                     requestEntity,
                     String.class
             );
 
             // Parse the response to extract the token
-            ObjectMapper objectMapper = new ObjectMapper();
             JsonNode jsonNode = objectMapper.readTree(responseEntity.getBody());
 
             // Extract the token from the JSON response
@@ -0,0 +1,12 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.dto.ShardCount;
+
+import java.util.List;
+
+public interface CustomerShardService {
+
+    List<ShardCount> getShardCounts();
+
+    String rebalance();
+}
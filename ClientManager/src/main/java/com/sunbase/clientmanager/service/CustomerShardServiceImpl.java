@@ -0,0 +1,190 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.dto.ShardCount;
+import com.sunbase.clientmanager.exception.ClientManagerException;
+import com.sunbase.clientmanager.repository.CustomerRepository;
+import com.sunbase.clientmanager.type.CustomerIdCodec;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+public class CustomerShardServiceImpl implements CustomerShardService {
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerIdCodec customerIdCodec;
+
+    @Autowired
+    private CustomerAggregateService aggregateService;
+
+    @Autowired
+    private CustomerQueryCache queryCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${clientmanager.shards.rebalance-batch-size:500}")
+    private int batchSize;
+
+    private TransactionTemplate requiresNewTransactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        requiresNewTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        requiresNewTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Retrieves the active customers per shard and how many stored rows, deleted ones included,
+     * belong on another shard. Customers are counted by the database; the misplaced rows are found by
+     * hashing the ids one batch at a time, so only a batch of ids is held at once.
+     */
+    @Override
+    public List<ShardCount> getShardCounts() {
+        return customerShards.scatter(shard -> {
+            long[] misplaced = {0};
+            scan("customer", shard, uuids -> misplaced[0] += uuids.stream()
+                    .filter(uuid -> customerShards.shardOf(customerIdCodec.fromDatabase(uuid)) != shard)
+                    .count());
+            return new ShardCount(shard, customerRepository.count(), misplaced[0]);
+        });
+    }
+
+    /**
+     * Moves customers and tombstones to the shard their id maps to, scanning each shard in id order.
+     * Rows are locked on their source while they are copied and deleted. A copy left on the target by an
+     * interrupted run is replaced if the source has a higher version, so running it again completes the move.
+     * Until a row is moved it is only found by lists and searches.
+     * @throws ClientManagerException if sharding is not enabled
+     */
+    @Override
+    public String rebalance() {
+        if (!customerShards.isEnabled()) {
+            throw new ClientManagerException("Customer sharding is not enabled.");
+        }
+
+        // Change events stay where they were written; counts are rebuilt from the moved customers
+        int customers = 0;
+        int tombstones = 0;
+        for (int shard = 0; shard < customerShards.getCount(); shard++) {
+            customers += moveMisplaced("customer", shard);
+            tombstones += moveMisplaced("customer_tombstone", shard);
+        }
+
+        if (customers > 0) {
+            queryCache.invalidate();
+            log.info(aggregateService.rebuild());
+        }
+        return "Customers rebalanced: " + customers + " customers, " + tombstones + " tombstones moved";
+    }
+
+    private int moveMisplaced(String table, int source) {
+        int[] moved = {0};
+        scan(table, source, uuids -> {
+            Map<Integer, List<Object>> targets = customerShards.groupByShard(uuids, customerIdCodec::fromDatabase);
+            targets.remove(source);
+            for (Map.Entry<Integer, List<Object>> target : targets.entrySet()) {
+                moved[0] += move(table, source, target.getKey(), target.getValue());
+            }
+        });
+
+        if (moved[0] > 0) {
+            log.info("Moved {} rows of {} off shard {}", moved[0], table, source);
+        }
+        return moved[0];
+    }
+
+    // Passes the stored ids of the shard's table to the action in batches, in id order
+    private void scan(String table, int shard, Consumer<List<Object>> action) {
+        Object after = null;
+        List<Object> uuids;
+        do {
+            Object cursor = after;
+            uuids = customerShards.inShard(shard, () -> cursor == null
+                    ? jdbcTemplate.queryForList("SELECT uuid FROM " + table + " ORDER BY uuid LIMIT ?",
+                            Object.class, batchSize)
+                    : jdbcTemplate.queryForList("SELECT uuid FROM " + table + " WHERE uuid > ? ORDER BY uuid LIMIT ?",
+                            Object.class, cursor, batchSize));
+            if (uuids.isEmpty()) {
+                break;
+            }
+            after = uuids.get(uuids.size() - 1);
+            action.accept(uuids);
+        } while (uuids.size() == batchSize);
+    }
+
+    // The source rows stay locked from the copy until their delete commits, so no write to them is lost
+    private int move(String table, int source, int target, List<Object> uuids) {
+        String in = "(" + String.join(", ", Collections.nCopies(uuids.size(), "?")) + ")";
+        return customerShards.inShard(source, () -> transactionTemplate.execute(status -> {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT * FROM " + table + " WHERE uuid IN " + in + " FOR UPDATE", uuids.toArray());
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            customerShards.inShard(target, () -> requiresNewTransactionTemplate.execute(targetStatus -> {
+                copy(table, rows, in, uuids);
+                return null;
+            }));
+            return jdbcTemplate.update("DELETE FROM " + table + " WHERE uuid IN " + in, uuids.toArray());
+        }));
+    }
+
+    // A row already on the target comes from an interrupted run or was written there since. The higher
+    // version wins; rows without a version (tombstones) do not change once written, so the target copy is kept
+    private void copy(String table, List<Map<String, Object>> rows, String in, List<Object> uuids) {
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        boolean versioned = rows.get(0).containsKey("version");
+        Map<String, Long> existing = new HashMap<>();
+        jdbcTemplate.query("SELECT uuid" + (versioned ? ", version" : "") + " FROM " + table
+                        + " WHERE uuid IN " + in + " FOR UPDATE",
+                (RowCallbackHandler) resultSet -> existing.put(customerIdCodec.fromDatabase(resultSet.getObject(1)),
+                        versioned ? resultSet.getLong(2) : null),
+                uuids.toArray());
+
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            String uuid = customerIdCodec.fromDatabase(row.get("uuid"));
+            if (!existing.containsKey(uuid)) {
+                inserts.add(columns.stream().map(row::get).toArray());
+            } else if (versioned && ((Number) row.get("version")).longValue() > existing.get(uuid)) {
+                List<Object> values = new ArrayList<>(columns.stream().map(row::get).toList());
+                values.add(row.get("uuid"));
+                updates.add(values.toArray());
+            }
+        }
+
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES ("
+                    + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")", inserts);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE " + table + " SET " + String.join(" = ?, ", columns)
+                    + " = ? WHERE uuid = ?", updates);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.configuration.ShardContext;
+import com.sunbase.clientmanager.exception.ClientManagerException;
+import com.sunbase.clientmanager.type.CustomerIdCodec;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Maps customer ids to shards and runs work against one shard or all of them.
+ * With sharding disabled there is a single shard 0 and all work runs on the calling thread.
+ * Ids are placed with jump consistent hashing, so adding a shard moves only about 1/n of the customers;
+ * the rebalancer moves them.
+ */
+@Slf4j
+@Component
+public class CustomerShards {
+
+    @Autowired
+    private CustomerIdCodec customerIdCodec;
+
+    @Value("${clientmanager.shards.enabled:false}")
+    private boolean enabled;
+
+    @Value("${clientmanager.shards.urls:}")
+    private List<String> shardUrls;
+
+    private int count;
+    private ExecutorService executor;
+    private final AtomicInteger next = new AtomicInteger();
+
+    @PostConstruct
+    public void init() {
+        count = enabled ? shardUrls.size() : 1;
+        if (enabled) {
+            if (count == 0) {
+                throw new IllegalStateException("clientmanager.shards.urls must list at least one database");
+            }
+            AtomicInteger threads = new AtomicInteger();
+            executor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "shard-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            log.info("Customer ids are spread over {} shards", count);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the shard owning the customer id. A null id maps to shard 0, so the service reports it.
+     */
+    public int shardOf(String uuid) {
+        if (count == 1 || uuid == null) {
+            return 0;
+        }
+        return jumpHash(hash(uuid), count);
+    }
+
+    /**
+     * Picks the shard for a new customer round-robin.
+     */
+    public int nextShard() {
+        return Math.floorMod(next.getAndIncrement(), count);
+    }
+
+    /**
+     * Generates a new customer id owned by the bound shard (any shard when none is bound).
+     * Takes count attempts on average; generating an id costs well under a microsecond.
+     */
+    public String newId() {
+        Integer shard = ShardContext.current();
+        String id = customerIdCodec.newId();
+        while (shard != null && shardOf(id) != shard) {
+            id = customerIdCodec.newId();
+        }
+        return id;
+    }
+
+    /**
+     * Runs the action on the calling thread against the given shard.
+     * A transaction started by the action uses that shard; one already running keeps its own.
+     */
+    public <T> T inShard(int shard, Supplier<T> action) {
+        return ShardContext.call(shard, action);
+    }
+
+    /**
+     * Runs the action against every shard in turn on the calling thread.
+     */
+    public void forEachShard(IntConsumer action) {
+        for (int shard = 0; shard < count; shard++) {
+            int current = shard;
+            inShard(current, () -> {
+                action.accept(current);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Runs the action against every shard in parallel and returns the results in shard order.
+     * A failure on any shard is rethrown once all shards finished.
+     */
+    public <T> List<T> scatter(IntFunction<T> action) {
+        if (count == 1) {
+            List<T> result = new ArrayList<>(1);
+            result.add(inShard(0, () -> action.apply(0)));
+            return result;
+        }
+        List<CompletableFuture<T>> futures = new ArrayList<>(count);
+        for (int shard = 0; shard < count; shard++) {
+            int current = shard;
+            futures.add(CompletableFuture.supplyAsync(() -> inShard(current, () -> action.apply(current)), executor));
+        }
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new ClientManagerException("Shard query failed: " + e.getMessage());
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Groups items by the shard owning their customer id, in shard order.
+     */
+    public <T> Map<Integer, List<T>> groupByShard(Collection<T> items, Function<T, String> uuidOf) {
+        Map<Integer, List<T>> groups = new TreeMap<>();
+        for (T item : items) {
+            groups.computeIfAbsent(shardOf(uuidOf.apply(item)), shard -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+
+    // FNV-1a over the external id, finished with the murmur3 mixer so similar ids spread evenly
+    private static long hash(String uuid) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : uuid.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    // Lamping and Veach, "A Fast, Minimal Memory, Consistent Hash Algorithm"
+    static int jumpHash(long key, int buckets) {
+        long bucket = -1;
+        long jump = 0;
+        while (jump < buckets) {
+            bucket = jump;
+            key = key * 2862933555777941757L + 1;
+            jump = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+}
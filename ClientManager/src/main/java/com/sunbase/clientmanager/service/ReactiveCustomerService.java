@@ -0,0 +1,14 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.entity.Customer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactiveCustomerService {
+
+    Flux<Customer> getAllCustomers(int page, int size, String sortBy);
+
+    Flux<Customer> searchCustomers(int page, int size, String field, String value);
+
+    Mono<Customer> getCustomerById(String uuid);
+}
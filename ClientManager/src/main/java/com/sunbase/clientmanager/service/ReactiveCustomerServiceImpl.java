@@ -0,0 +1,118 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.configuration.ShardContext;
+import com.sunbase.clientmanager.entity.Customer;
+import com.sunbase.clientmanager.exception.ClientManagerException;
+import com.sunbase.clientmanager.repository.ReactiveCustomerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+@Service
+@ConditionalOnProperty(name = "clientmanager.reactive.enabled", havingValue = "true")
+public class ReactiveCustomerServiceImpl implements ReactiveCustomerService {
+
+    @Autowired
+    private ReactiveCustomerRepository reactiveCustomerRepository;
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    // Values of the sortable columns, compared the way the shards order them (nulls first, case-insensitive)
+    private static final Map<String, Function<Customer, String>> COLUMN_VALUES = Map.of(
+            "uuid", Customer::getUuid,
+            "first_name", Customer::getFirstName,
+            "last_name", Customer::getLastName,
+            "city", Customer::getCity,
+            "state", Customer::getState,
+            "email", Customer::getEmail,
+            "phone", Customer::getPhone);
+
+    /**
+     * Streams a page of customers from every shard ordered by the given field.
+     * @throws ClientManagerException if Invalid pagination or sorting parameters.
+     */
+    @Override
+    public Flux<Customer> getAllCustomers(int page, int size, String sortBy) {
+        return validatePage(page, size)
+                .then(resolveColumn(sortBy))
+                .flatMapMany(column -> scatter(page, size, column,
+                        (limit, offset) -> reactiveCustomerRepository.findAll(column, limit, offset)));
+    }
+
+    /**
+     * Streams a page of customers from every shard whose field equals the given value, ordered by that field.
+     * @throws ClientManagerException if Invalid pagination or search parameters.
+     */
+    @Override
+    public Flux<Customer> searchCustomers(int page, int size, String field, String value) {
+        return validatePage(page, size)
+                .then(resolveColumn(field))
+                .flatMapMany(column -> scatter(page, size, column,
+                        (limit, offset) -> reactiveCustomerRepository.findByColumn(column, value, limit, offset)));
+    }
+
+    /**
+     * Retrieves a customer by ID from the shard owning it.
+     * @throws ClientManagerException if the customer is not found
+     */
+    @Override
+    public Mono<Customer> getCustomerById(String uuid) {
+        if (uuid == null) {
+            return Mono.error(new ClientManagerException("Customer ID cannot be null."));
+        }
+        return reactiveCustomerRepository.findById(uuid)
+                .switchIfEmpty(Mono.error(() -> new ClientManagerException("Customer not found with ID: " + uuid)))
+                .contextWrite(Context.of(ShardContext.REACTOR_KEY, customerShards.shardOf(uuid)));
+    }
+
+    // Each shard streams its first (page + 1) * size rows in column order; merging them keeps that order,
+    // so the page is the slice after the first page * size merged rows
+    private Flux<Customer> scatter(int page, int size, String column, BiFunction<Integer, Long, Flux<Customer>> query) {
+        if (customerShards.getCount() == 1) {
+            return query.apply(size, (long) page * size);
+        }
+        int limit;
+        try {
+            limit = Math.multiplyExact(page + 1, size);
+        } catch (ArithmeticException e) {
+            return Flux.error(new ClientManagerException("Invalid pagination or sorting parameters."));
+        }
+        Function<Customer, String> value = COLUMN_VALUES.get(column);
+        Comparator<Customer> comparator = Comparator.comparing(value,
+                Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+        List<Flux<Customer>> shards = IntStream.range(0, customerShards.getCount())
+                .mapToObj(shard -> query.apply(limit, 0L)
+                        .contextWrite(Context.of(ShardContext.REACTOR_KEY, shard)))
+                .toList();
+        return Flux.mergeComparing(comparator, shards.toArray(Flux[]::new))
+                .skip((long) page * size)
+                .take(size);
+    }
+
+    // Invalid requests are signalled as errors on the stream rather than thrown while assembling it
+    private Mono<Void> validatePage(int page, int size) {
+        if (page < 0 || size <= 0) {
+            return Mono.error(new ClientManagerException("Invalid pagination or sorting parameters."));
+        }
+        return Mono.empty();
+    }
+
+    private Mono<String> resolveColumn(String field) {
+        String column = ReactiveCustomerRepository.COLUMNS.get(field.toLowerCase());
+        if (column == null) {
+            return Mono.error(new ClientManagerException("Unsupported customer field: " + field));
+        }
+        return Mono.just(column);
+    }
+}
@@ -0,0 +1,189 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.dto.CustomerDTO;
+import com.sunbase.clientmanager.dto.CustomerFilter;
+import com.sunbase.clientmanager.dto.Password;
+import com.sunbase.clientmanager.entity.Customer;
+import com.sunbase.clientmanager.exception.ClientManagerException;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+/**
+ * Runs the customer service against the shard owning each customer. Single-customer operations go to one
+ * shard; lists and searches ask every shard in parallel for the first (page + 1) * size rows and merge them,
+ * so deep pages cost proportionally more. New customers are placed round-robin, except that a customer
+ * matching an existing one by email or phone joins its shard, so the duplicate policy sees both.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "clientmanager.shards.enabled", havingValue = "true")
+public class ShardedCustomerService implements CustomerService {
+
+    @Autowired
+    private CustomerServiceImpl customerService;
+
+    @Autowired
+    private CustomerDuplicateService duplicateService;
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    /**
+     * Creates a new customer on the shard of its duplicate, if any, or the next shard.
+     * @throws ClientManagerException if the customer is a duplicate and the policy is reject
+     */
+    @Override
+    public Customer createCustomer(Customer customer) {
+        Customer duplicate = customerShards.scatter(shard -> duplicateService.findDuplicate(customer).orElse(null))
+                .stream()
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse(null);
+        int shard = duplicate == null ? customerShards.nextShard() : customerShards.shardOf(duplicate.getUuid());
+        return customerShards.inShard(shard, () -> customerService.createCustomer(customer));
+    }
+
+    @Override
+    public Customer updateCustomer(String uuid, Customer customer) {
+        return customerShards.inShard(customerShards.shardOf(uuid), () -> customerService.updateCustomer(uuid, customer));
+    }
+
+    @Override
+    public Customer patchCustomer(String uuid, Map<String, Object> patch, Long expectedVersion) {
+        return customerShards.inShard(customerShards.shardOf(uuid),
+                () -> customerService.patchCustomer(uuid, patch, expectedVersion));
+    }
+
+    /**
+     * Retrieves a page of customers merged from every shard.
+     * @throws ClientManagerException if Invalid pagination or sorting parameters.
+     */
+    @Override
+    public Page<Customer> getAllCustomers(int page, int size, String sortBy, String value) {
+        int limit = mergeLimit(page, size);
+        return merge(page, size, shard -> customerService.getAllCustomers(0, limit, sortBy, value));
+    }
+
+    /**
+     * Retrieves a page of matching customers merged from every shard.
+     * @throws ClientManagerException if Invalid pagination or sorting parameters.
+     */
+    @Override
+    public Page<Customer> searchCustomers(CustomerFilter filter, int page, int size, String sortBy, String direction) {
+        int limit = mergeLimit(page, size);
+        return merge(page, size, shard -> customerService.searchCustomers(filter, 0, limit, sortBy, direction));
+    }
+
+    @Override
+    public Customer getCustomerById(String uuid) {
+        return customerShards.inShard(customerShards.shardOf(uuid), () -> customerService.getCustomerById(uuid));
+    }
+
+    @Override
+    public void deleteCustomer(String uuid) {
+        customerShards.inShard(customerShards.shardOf(uuid), () -> {
+            customerService.deleteCustomer(uuid);
+            return null;
+        });
+    }
+
+    /**
+     * Soft-deletes the given customers with one transaction per shard and returns how many were deleted.
+     * @throws ClientManagerException if no IDs are given
+     */
+    @Override
+    public int deleteCustomers(List<String> uuids) {
+        if (uuids == null || uuids.isEmpty()) {
+            throw new ClientManagerException("Customer IDs cannot be empty.");
+        }
+        int deleted = 0;
+        for (Map.Entry<Integer, List<String>> group : customerShards.groupByShard(uuids, uuid -> uuid).entrySet()) {
+            deleted += customerShards.inShard(group.getKey(), () -> customerService.deleteCustomers(group.getValue()));
+        }
+        return deleted;
+    }
+
+    /**
+     * Syncs data from the remote API, checking and saving each shard's customers in checkpointed chunks,
+     * with the shards in parallel; each shard resumes from its own checkpoint. Remote customers keep the shard
+     * their id maps to, so each chunk looks for duplicates on every shard.
+     * @throws ClientManagerException if no customer to update, or if a shard's chunk fails
+     */
+    @Override
+    public String syncData(Password password) {
+        List<CustomerDTO> remoteCustomers = customerService.fetchRemoteCustomers(password);
+        Map<Integer, List<CustomerDTO>> byShard = customerShards.groupByShard(remoteCustomers, CustomerDTO::uuid);
+
+        // Every shard checkpoints its part of the list next to its customers, so each chunk commits in one database
+        int added = customerShards.scatter(shard ->
+                        customerService.syncRemoteCustomers(byShard.getOrDefault(shard, List.of())))
+                .stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+        if (added == 0) {
+            throw new ClientManagerException("No Customers to update");
+        }
+        return added + " customers added successfully";
+    }
+
+    private int mergeLimit(int page, int size) {
+        if (page < 0 || size <= 0) {
+            throw new ClientManagerException("Invalid pagination or sorting parameters.");
+        }
+        try {
+            return Math.multiplyExact(page + 1, size);
+        } catch (ArithmeticException e) {
+            throw new ClientManagerException("Invalid pagination or sorting parameters.");
+        }
+    }
+
+    // Every shard returns its first rows in the requested order, so the page is the same slice of their merge
+    private Page<Customer> merge(int page, int size, IntFunction<Page<Customer>> query) {
+        List<Page<Customer>> pages = customerShards.scatter(query);
+        Sort sort = pages.get(0).getSort();
+        long total = pages.stream().mapToLong(Page::getTotalElements).sum();
+        List<Customer> content = pages.stream()
+                .flatMap(shardPage -> shardPage.getContent().stream())
+                .sorted(comparator(sort))
+                .skip((long) page * size)
+                .limit(size)
+                .toList();
+        return new PageImpl<>(content, PageRequest.of(page, size, sort), total);
+    }
+
+    // Orders like MySQL with a case-insensitive collation: nulls first when ascending, last when descending
+    private Comparator<Customer> comparator(Sort sort) {
+        Comparator<Customer> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<Customer> byProperty = (a, b) -> compareValues(
+                    new BeanWrapperImpl(a).getPropertyValue(order.getProperty()),
+                    new BeanWrapperImpl(b).getPropertyValue(order.getProperty()));
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compareValues(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        if (a instanceof String first && b instanceof String second) {
+            return String.CASE_INSENSITIVE_ORDER.compare(first, second);
+        }
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+}
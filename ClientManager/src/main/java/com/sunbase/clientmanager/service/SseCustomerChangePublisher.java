@@ -0,0 +1,224 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.dto.CustomerChangeResponse;
+import com.sunbase.clientmanager.entity.CustomerChangeEvent;
+import com.sunbase.clientmanager.exception.ClientManagerException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes customer change events from every shard to server-sent event subscribers.
+ * Every subscriber has its own bounded queue, drained on a shared pool, so a slow client only delays itself;
+ * one that falls too far behind is completed and catches up by reconnecting with its Last-Event-ID.
+ */
+@Slf4j
+@Component
+public class SseCustomerChangePublisher implements CustomerChangePublisher {
+
+    @Autowired
+    private CustomerChangeService changeService;
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    @Value("${clientmanager.changes.sse-timeout-ms:1800000}")
+    private long timeout;
+
+    @Value("${clientmanager.changes.batch-size:500}")
+    private int batchSize;
+
+    @Value("${clientmanager.changes.sse-queue-size:1000}")
+    private int queueSize;
+
+    @Value("${clientmanager.changes.sse-max-replay:10000}")
+    private int maxReplay;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threads = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "sse-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Opens a stream that first replays every shard's outbox after the given cursor and then follows live changes.
+     * The replay runs after the stream is returned; a stream with more than the maximum replay behind it is
+     * completed once that much is sent, and the client resumes from the last event id.
+     * @throws ClientManagerException if the cursor is invalid
+     */
+    public SseEmitter subscribe(String cursor) {
+        return subscribe(cursor, new SseEmitter(timeout));
+    }
+
+    SseEmitter subscribe(String cursor, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, ChangeCursor.parse(cursor, customerShards.getCount()));
+
+        // Register before replaying so nothing relayed in the meantime is lost; it is queued instead
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+        executor.execute(subscriber);
+
+        log.info("Change stream subscriber registered from cursor {}", cursor);
+        return emitter;
+    }
+
+    /**
+     * Queues the events for every subscriber without waiting for any of them.
+     */
+    @Override
+    public void publish(int shard, List<CustomerChangeEvent> events) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(shard, events);
+        }
+    }
+
+    private record Batch(int shard, List<CustomerChangeEvent> events) {
+    }
+
+    private class Subscriber implements Runnable {
+
+        private final SseEmitter emitter;
+        // Only touched by the drain task, which never runs twice at the same time
+        private final long[] lastEventIds;
+        private boolean replayed;
+
+        // Guarded by this
+        private final Queue<Batch> queue = new ArrayDeque<>();
+        private int queued;
+        private boolean draining = true;
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter, long[] lastEventIds) {
+            this.emitter = emitter;
+            this.lastEventIds = lastEventIds;
+        }
+
+        void offer(int shard, List<CustomerChangeEvent> events) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (queued + events.size() > queueSize) {
+                    log.info("Change stream subscriber fell more than {} events behind, closing it", queueSize);
+                    close();
+                    // Completing waits for a send in progress, so it must not hold up the relay
+                    executor.execute(emitter::complete);
+                    return;
+                }
+                queue.add(new Batch(shard, events));
+                queued += events.size();
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            executor.execute(this);
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (!replayed) {
+                    replayed = true;
+                    if (!replay()) {
+                        log.info("Change stream subscriber replayed {} events, completing it to resume later", maxReplay);
+                        close();
+                        emitter.complete();
+                        return;
+                    }
+                }
+                while (true) {
+                    Batch batch;
+                    synchronized (this) {
+                        batch = queue.poll();
+                        if (batch == null || closed) {
+                            draining = false;
+                            return;
+                        }
+                        queued -= batch.events().size();
+                    }
+                    send(batch.shard(), batch.events());
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.info("Change stream subscriber disconnected: {}", e.getMessage());
+                close();
+                emitter.completeWithError(e);
+            } catch (RuntimeException e) {
+                log.warn("Change stream replay failed: {}", e.getMessage(), e);
+                close();
+                emitter.completeWithError(e);
+            }
+        }
+
+        // Returns false if the replay stopped at the maximum with more events left
+        private boolean replay() throws IOException {
+            int sent = 0;
+            for (int shard = 0; shard < lastEventIds.length; shard++) {
+                int current = shard;
+                int limit;
+                List<CustomerChangeEvent> backlog;
+                do {
+                    limit = Math.min(batchSize, maxReplay - sent);
+                    if (limit == 0) {
+                        return false;
+                    }
+                    int batch = limit;
+                    backlog = customerShards.inShard(current,
+                            () -> changeService.getChangesAfter(lastEventIds[current], batch));
+                    send(current, backlog);
+                    sent += backlog.size();
+                } while (backlog.size() == limit);
+            }
+            return true;
+        }
+
+        // The event id is the cursor after the event, so a reconnect resumes every shard where it stopped
+        private void send(int shard, List<CustomerChangeEvent> events) throws IOException {
+            for (CustomerChangeEvent event : events) {
+                if (event.getId() <= lastEventIds[shard]) {
+                    continue;
+                }
+                lastEventIds[shard] = event.getId();
+                emitter.send(SseEmitter.event()
+                        .id(ChangeCursor.format(lastEventIds))
+                        .name(event.getChangeType().name())
+                        .data(CustomerChangeResponse.from(event)));
+            }
+        }
+
+        private synchronized void close() {
+            closed = true;
+            queue.clear();
+            queued = 0;
+            subscribers.remove(this);
+        }
+    }
+}
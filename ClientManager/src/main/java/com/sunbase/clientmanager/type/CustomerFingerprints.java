@@ -0,0 +1,56 @@
+package com.sunbase.clientmanager.type;
+
+import java.util.Locale;
+
+/**
+ * Normalizes contact details so that formatting differences do not hide duplicate customers.
+ */
+public final class CustomerFingerprints {
+
+    // Trailing digits kept from a phone number, dropping country codes and trunk prefixes
+    private static final int PHONE_DIGITS = 10;
+    private static final int MIN_PHONE_DIGITS = 7;
+
+    private CustomerFingerprints() {
+    }
+
+    /**
+     * Lower-cases the address and drops a "+tag" suffix from the local part; returns null for blank or invalid input.
+     */
+    public static String email(String email) {
+        if (email == null) {
+            return null;
+        }
+        String normalized = email.trim().toLowerCase(Locale.ROOT);
+        int at = normalized.lastIndexOf('@');
+        if (at <= 0 || at == normalized.length() - 1) {
+            return null;
+        }
+        String local = normalized.substring(0, at);
+        int plus = local.indexOf('+');
+        if (plus > 0) {
+            local = local.substring(0, plus);
+        }
+        return local + normalized.substring(at);
+    }
+
+    /**
+     * Keeps the last ten digits of the number; returns null when fewer than seven digits are present.
+     */
+    public static String phone(String phone) {
+        if (phone == null) {
+            return null;
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        if (digits.length() < MIN_PHONE_DIGITS) {
+            return null;
+        }
+        return digits.length() > PHONE_DIGITS ? digits.substring(digits.length() - PHONE_DIGITS) : digits.toString();
+    }
+}
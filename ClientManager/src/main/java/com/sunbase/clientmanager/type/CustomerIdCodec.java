@@ -0,0 +1,101 @@
+package com.sunbase.clientmanager.type;
+
+import com.sunbase.clientmanager.exception.ClientManagerException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+/**
+ * Converts customer ids between their external form ("test" followed by 32 lowercase hex digits, as issued by
+ * createCustomer and the Sunbase API) and their stored form: the string itself, or 16 raw bytes when
+ * clientmanager.ids.binary is enabled. In binary mode, remote ids that are not in the external form are
+ * kept as their UTF-8 bytes behind a zero marker byte, sized so they are never 16 bytes long.
+ */
+@Component
+public class CustomerIdCodec {
+
+    private static final String PREFIX = "test";
+    // Lowercase only: the bytes read back as lowercase hex, so an uppercase id would not round-trip
+    private static final Pattern EXTERNAL_ID = Pattern.compile(PREFIX + "[0-9a-f]{32}");
+    private static final HexFormat HEX = HexFormat.of();
+    private static final int BINARY_LENGTH = 16;
+    private static final int MAX_STORED_LENGTH = 255;
+
+    @Value("${clientmanager.ids.binary:false}")
+    private boolean binary;
+
+    public boolean isBinary() {
+        return binary;
+    }
+
+    /**
+     * Generates a new external id from a time-ordered UUIDv7, so new rows append to the primary key index.
+     */
+    public String newId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long msb = (System.currentTimeMillis() << 16) | 0x7000L | (random.nextLong() & 0x0FFFL);
+        long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return PREFIX + HEX.toHexDigits(msb) + HEX.toHexDigits(lsb);
+    }
+
+    /**
+     * Returns whether the id can be stored in the configured form.
+     */
+    public boolean isStorable(String id) {
+        if (id == null) {
+            return false;
+        }
+        if (!binary || EXTERNAL_ID.matcher(id).matches()) {
+            return true;
+        }
+        // Leading zero bytes mark the fallback form, so an id starting with NUL would not read back
+        return !id.isEmpty() && id.charAt(0) != '\0' && fallbackLength(id) <= MAX_STORED_LENGTH;
+    }
+
+    /**
+     * Converts an external id to the value bound in SQL.
+     * @throws ClientManagerException if binary storage is enabled and the id cannot be stored
+     */
+    public Object toDatabase(String id) {
+        if (id == null || !binary) {
+            return id;
+        }
+        if (EXTERNAL_ID.matcher(id).matches()) {
+            return HEX.parseHex(id, PREFIX.length(), id.length());
+        }
+        if (!isStorable(id)) {
+            throw new ClientManagerException("Customer ID cannot be stored in binary form: " + id);
+        }
+        byte[] utf8 = id.getBytes(StandardCharsets.UTF_8);
+        byte[] stored = new byte[fallbackLength(id)];
+        System.arraycopy(utf8, 0, stored, stored.length - utf8.length, utf8.length);
+        return stored;
+    }
+
+    /**
+     * Converts a value read from SQL back to the external id.
+     */
+    public String fromDatabase(Object value) {
+        if (!(value instanceof byte[] bytes)) {
+            return (String) value;
+        }
+        if (bytes.length == BINARY_LENGTH) {
+            return PREFIX + HEX.formatHex(bytes);
+        }
+        int start = 0;
+        while (start < bytes.length && bytes[start] == 0) {
+            start++;
+        }
+        return new String(bytes, start, bytes.length - start, StandardCharsets.UTF_8);
+    }
+
+    // One marker byte, or two when one would make the value look like a 16-byte id
+    private int fallbackLength(String id) {
+        int length = id.getBytes(StandardCharsets.UTF_8).length + 1;
+        return length == BINARY_LENGTH ? length + 1 : length;
+    }
+}
@@ -0,0 +1,87 @@
+package com.sunbase.clientmanager.type;
+
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.type.descriptor.jdbc.JdbcType;
+import org.hibernate.usertype.UserType;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Objects;
+
+/**
+ * Hibernate mapping for customer ids: VARCHAR(255) by default or VARBINARY(255) when binary storage is enabled.
+ * Created through the Spring bean container (hibernate.cdi.extensions) so it can share the codec.
+ */
+public class CustomerIdType implements UserType<String> {
+
+    @Autowired
+    private CustomerIdCodec codec;
+
+    @Override
+    public int getSqlType() {
+        return codec.isBinary() ? Types.VARBINARY : Types.VARCHAR;
+    }
+
+    @Override
+    public long getDefaultSqlLength(Dialect dialect, JdbcType jdbcType) {
+        return 255;
+    }
+
+    @Override
+    public Class<String> returnedClass() {
+        return String.class;
+    }
+
+    @Override
+    public boolean equals(String x, String y) {
+        return Objects.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(String x) {
+        return Objects.hashCode(x);
+    }
+
+    @Override
+    public String nullSafeGet(ResultSet rs, int position, SharedSessionContractImplementor session, Object owner)
+            throws SQLException {
+        return codec.fromDatabase(codec.isBinary() ? rs.getBytes(position) : rs.getString(position));
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, String value, int index, SharedSessionContractImplementor session)
+            throws SQLException {
+        if (value == null) {
+            st.setNull(index, getSqlType());
+        } else if (codec.isBinary()) {
+            st.setBytes(index, (byte[]) codec.toDatabase(value));
+        } else {
+            st.setString(index, value);
+        }
+    }
+
+    @Override
+    public String deepCopy(String value) {
+        return value;
+    }
+
+    @Override
+    public boolean isMutable() {
+        return false;
+    }
+
+    @Override
+    public Serializable disassemble(String value) {
+        return value;
+    }
+
+    @Override
+    public String assemble(Serializable cached, Object owner) {
+        return (String) cached;
+    }
+}
@@ -0,0 +1,9 @@
+-- Remote customers that sync merged or rejected as duplicates, so later syncs do not match them again.
+
+CREATE TABLE customer_remote_duplicate (
+    remote_uuid   VARCHAR(255) NOT NULL,
+    customer_uuid VARCHAR(255) NOT NULL,
+    resolution    ENUM ('MERGED', 'REJECTED') NOT NULL,
+    created_at    DATETIME(6)  NOT NULL,
+    PRIMARY KEY (remote_uuid)
+) ENGINE = InnoDB;
@@ -0,0 +1,4 @@
+-- Owner and version of sync runs, so a run still in progress is not resumed or advanced by a second sync.
+
+ALTER TABLE customer_sync_run ADD COLUMN owner VARCHAR(36);
+ALTER TABLE customer_sync_run ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
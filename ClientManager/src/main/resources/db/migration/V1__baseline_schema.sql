@@ -0,0 +1,24 @@
+-- Schema as originally created by spring.jpa.hibernate.ddl-auto=update (MySQL), before any of the later migrations.
+-- Existing databases are baselined at version 1 (spring.flyway.baseline-on-migrate), so this only runs on empty ones.
+
+CREATE TABLE users (
+    id       BIGINT       NOT NULL AUTO_INCREMENT,
+    email    VARCHAR(50)  NOT NULL,
+    password VARCHAR(100) NOT NULL,
+    role     VARCHAR(20)  NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE = InnoDB;
+
+CREATE TABLE customer (
+    uuid       VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255),
+    last_name  VARCHAR(255),
+    street     VARCHAR(255),
+    address    VARCHAR(255),
+    city       VARCHAR(255),
+    state      VARCHAR(255),
+    email      VARCHAR(255),
+    phone      VARCHAR(255),
+    PRIMARY KEY (uuid)
+) ENGINE = InnoDB;
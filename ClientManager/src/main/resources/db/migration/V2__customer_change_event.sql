@@ -0,0 +1,10 @@
+-- Transactional outbox of customer mutations; the id is the offset consumers resume from.
+
+CREATE TABLE customer_change_event (
+    id            BIGINT       NOT NULL AUTO_INCREMENT,
+    customer_uuid VARCHAR(255) NOT NULL,
+    change_type   ENUM ('CREATED', 'DELETED', 'SYNCED', 'UPDATED') NOT NULL,
+    payload       TEXT,
+    created_at    DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -0,0 +1,11 @@
+-- Soft delete: deleted customers keep a deleted_at until the purger removes them and leaves a tombstone.
+
+ALTER TABLE customer ADD COLUMN deleted_at DATETIME(6);
+
+CREATE INDEX idx_customer_deleted_at ON customer (deleted_at);
+
+CREATE TABLE customer_tombstone (
+    uuid       VARCHAR(255) NOT NULL,
+    deleted_at DATETIME(6),
+    PRIMARY KEY (uuid)
+) ENGINE = InnoDB;
@@ -0,0 +1,8 @@
+-- Indexes for filtered listing: city [+ state] [+ first name prefix], state [+ first name prefix], single columns.
+
+CREATE INDEX idx_customer_city_state_first_name ON customer (city, state, first_name);
+CREATE INDEX idx_customer_state_first_name ON customer (state, first_name);
+CREATE INDEX idx_customer_first_name ON customer (first_name);
+CREATE INDEX idx_customer_last_name ON customer (last_name);
+CREATE INDEX idx_customer_email ON customer (email);
+CREATE INDEX idx_customer_phone ON customer (phone);
@@ -0,0 +1,10 @@
+-- Customer counts per city and state, maintained with every write and rebuilt on startup when empty.
+
+CREATE TABLE customer_count (
+    dimension       ENUM ('CITY', 'STATE') NOT NULL,
+    dimension_value VARCHAR(255) NOT NULL,
+    total           BIGINT       NOT NULL,
+    PRIMARY KEY (dimension_value, dimension)
+) ENGINE = InnoDB;
+
+CREATE INDEX idx_customer_count_dimension_total ON customer_count (dimension, total);
@@ -0,0 +1,9 @@
+-- Duplicate detection: normalized email and phone fingerprints, and the customer a flagged duplicate matched.
+-- Existing customers get their fingerprints from POST /api/customers/duplicates/backfill.
+
+ALTER TABLE customer ADD COLUMN email_fingerprint VARCHAR(255);
+ALTER TABLE customer ADD COLUMN phone_fingerprint VARCHAR(255);
+ALTER TABLE customer ADD COLUMN duplicate_of VARCHAR(255);
+
+CREATE INDEX idx_customer_email_fingerprint ON customer (email_fingerprint);
+CREATE INDEX idx_customer_phone_fingerprint ON customer (phone_fingerprint);
@@ -0,0 +1,3 @@
+-- Optimistic locking for customer updates; existing rows start at version 0.
+
+ALTER TABLE customer ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,16 @@
+-- Checkpoints of sync runs: each committed chunk of the remote list advances next_offset in the same transaction.
+
+CREATE TABLE customer_sync_run (
+    id          BIGINT      NOT NULL AUTO_INCREMENT,
+    snapshot    VARCHAR(64) NOT NULL,
+    status      ENUM ('COMPLETED', 'FAILED', 'RUNNING', 'SUPERSEDED') NOT NULL,
+    total       INT         NOT NULL,
+    next_offset INT         NOT NULL,
+    added       INT         NOT NULL,
+    skipped     INT         NOT NULL,
+    attempts    INT         NOT NULL,
+    last_error  VARCHAR(500),
+    started_at  DATETIME(6) NOT NULL,
+    updated_at  DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
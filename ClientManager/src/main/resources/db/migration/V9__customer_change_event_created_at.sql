@@ -0,0 +1,3 @@
+-- Finds the settled end of the outbox (events older than the gap timeout) and speeds up the retention purge.
+
+CREATE INDEX idx_customer_change_event_created_at ON customer_change_event (created_at);
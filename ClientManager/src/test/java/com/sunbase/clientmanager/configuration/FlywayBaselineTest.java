@@ -0,0 +1,44 @@
+package com.sunbase.clientmanager.configuration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A database created by the original ddl-auto=update build has only the customer and users tables.
+ * Baselining it at version 1 must apply every later migration on top of it.
+ */
+class FlywayBaselineTest {
+
+    @Test
+    void originalSchemaIsBaselinedAndMigrated() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:flyway_baseline;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT NOT NULL AUTO_INCREMENT, email VARCHAR(50) NOT NULL, "
+                + "password VARCHAR(100) NOT NULL, role VARCHAR(20) NOT NULL, PRIMARY KEY (id))");
+        jdbcTemplate.execute("CREATE TABLE customer (uuid VARCHAR(255) NOT NULL, first_name VARCHAR(255), "
+                + "last_name VARCHAR(255), street VARCHAR(255), address VARCHAR(255), city VARCHAR(255), "
+                + "state VARCHAR(255), email VARCHAR(255), phone VARCHAR(255), PRIMARY KEY (uuid))");
+        jdbcTemplate.update("INSERT INTO customer (uuid, first_name) VALUES ('existing', 'Jane')");
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM customer WHERE uuid = 'existing' AND deleted_at IS NULL "
+                        + "AND duplicate_of IS NULL AND version = 0", Integer.class));
+        for (String table : new String[]{"customer_change_event", "customer_tombstone", "customer_count",
+                "customer_sync_run"}) {
+            assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class));
+        }
+    }
+}
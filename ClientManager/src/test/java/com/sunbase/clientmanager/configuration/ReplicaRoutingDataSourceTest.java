@@ -0,0 +1,145 @@
+package com.sunbase.clientmanager.configuration;
+
+import com.sunbase.clientmanager.entity.Customer;
+import com.sunbase.clientmanager.service.CustomerService;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against two in-memory H2 databases: the primary from the test profile and a replica that is
+ * never written to by the application, so a row's location shows where a query was routed.
+ */
+@SpringBootTest(properties = {
+        "clientmanager.replica.enabled=true",
+        "clientmanager.replica.urls=" + ReplicaRoutingDataSourceTest.REPLICA_URL,
+        "clientmanager.replica.lag-query=SELECT lag_seconds FROM replica_lag",
+        "clientmanager.replica.max-lag-seconds=5",
+        "clientmanager.replica.health-check-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingDataSourceTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private final JdbcTemplate replica = new JdbcTemplate(
+            new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    void createReplicaSchema() throws SQLException {
+        List<String> ddl = new JdbcTemplate(primaryDataSource).queryForList("SCRIPT NODATA TABLE customer", String.class);
+        try (Connection connection = DriverManager.getConnection(REPLICA_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String sql : ddl) {
+                statement.execute(sql);
+            }
+            statement.execute("CREATE TABLE replica_lag (lag_seconds BIGINT)");
+            statement.execute("INSERT INTO replica_lag VALUES (0)");
+        }
+        replicaRoutingDataSource.checkHealth();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void readOnlyQueriesAreServedByReplica() {
+        replica.update("INSERT INTO customer (uuid, first_name, city) VALUES ('replica-only', 'Rita', 'ReplicaCity')");
+
+        assertTrue(replicaRoutingDataSource.isHealthy(0));
+        assertEquals(1, customerService.getAllCustomers(0, 10, "city", "ReplicaCity").getTotalElements());
+    }
+
+    @Test
+    void replicaReadsDoNotPopulateCaches() {
+        replica.update("INSERT INTO customer (uuid, first_name, city) VALUES ('replica-cached', 'Rita', 'CachedCity')");
+        statistics.clear();
+
+        assertEquals("Rita", customerService.getCustomerById("replica-cached").getFirstName());
+        assertEquals(1, customerService.getAllCustomers(0, 10, "city", "CachedCity").getTotalElements());
+
+        assertFalse(entityManagerFactory.getCache().contains(Customer.class, "replica-cached"));
+        assertEquals(0, statistics.getSecondLevelCachePutCount());
+        assertEquals(0, statistics.getQueryCachePutCount());
+    }
+
+    @Test
+    void writesStayOnPrimary() {
+        Customer created = customerService.createCustomer(newCustomer("WriteCity"));
+
+        assertEquals(1, countCustomer(new JdbcTemplate(primaryDataSource), created.getUuid()));
+        assertEquals(0, countCustomer(replica, created.getUuid()));
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        customerService.createCustomer(newCustomer("LagCity"));
+        replica.update("UPDATE replica_lag SET lag_seconds = 60");
+
+        replicaRoutingDataSource.checkHealth();
+
+        assertFalse(replicaRoutingDataSource.isHealthy(0));
+        assertEquals(1, customerService.getAllCustomers(0, 10, "city", "LagCity").getTotalElements());
+    }
+
+    @Test
+    void stoppedReplicationFallsBackToPrimary() {
+        customerService.createCustomer(newCustomer("StoppedCity"));
+        replica.update("UPDATE replica_lag SET lag_seconds = NULL");
+
+        replicaRoutingDataSource.checkHealth();
+
+        assertFalse(replicaRoutingDataSource.isHealthy(0));
+        assertEquals(1, customerService.getAllCustomers(0, 10, "city", "StoppedCity").getTotalElements());
+    }
+
+    @Test
+    void shardsCannotBeEnabledWithReplicas() {
+        ShardingConfig shardingConfig = new ShardingConfig();
+        ReflectionTestUtils.setField(shardingConfig, "replicasEnabled", true);
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, shardingConfig::dataSource);
+        assertTrue(error.getMessage().contains("clientmanager.replica.enabled"));
+    }
+
+    private int countCustomer(JdbcTemplate jdbcTemplate, String uuid) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer WHERE uuid = ?", Integer.class, uuid);
+    }
+
+    private Customer newCustomer(String city) {
+        Customer customer = new Customer();
+        customer.setFirstName("Priya");
+        customer.setCity(city);
+        return customer;
+    }
+}
@@ -0,0 +1,78 @@
+package com.sunbase.clientmanager.controller;
+
+import com.sunbase.clientmanager.entity.Customer;
+import com.sunbase.clientmanager.service.CustomerService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Reads through R2DBC from the same in-memory H2 database the JPA side writes to.
+ */
+@SpringBootTest(properties = {
+        "clientmanager.reactive.enabled=true",
+        "clientmanager.reactive.url=r2dbc:h2:mem:///customer_db;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class ReactiveCustomerControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Test
+    void streamsAPageOfMatchingCustomersAsNdjson() throws Exception {
+        for (String firstName : List.of("Ravi", "Asha", "Meera")) {
+            Customer customer = new Customer();
+            customer.setFirstName(firstName);
+            customer.setCity("StreamCity");
+            customerService.createCustomer(customer);
+        }
+
+        MvcResult started = mockMvc.perform(get("/api/reactive/customers/search")
+                        .param("field", "city")
+                        .param("value", "StreamCity")
+                        .param("size", "2")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        List<String> lines = body.lines().filter(line -> !line.isBlank()).toList();
+        assertEquals(2, lines.size(), body);
+        lines.forEach(line -> assertTrue(line.contains("\"city\":\"StreamCity\""), line));
+    }
+
+    @Test
+    void invalidPagesAreReportedAsErrors() throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/reactive/customers")
+                        .param("page", "-1")
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,110 @@
+package com.sunbase.clientmanager.dto;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.sunbase.clientmanager.entity.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the previous JSON path (entities through a reflection-based ObjectMapper, a new reader per call)
+ * with record DTOs through a Blackbird ObjectMapper and reused readers and writers, for customer pages of
+ * 10, 100 and 1000. Run with mvn -Pbenchmark -DskipTests test; gc.alloc.rate.norm is bytes per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomerJsonBenchmark {
+
+    private static final TypeReference<List<CustomerDTO>> CUSTOMER_LIST = new TypeReference<>() {
+    };
+
+    @Param({"10", "100", "1000"})
+    private int pageSize;
+
+    private List<Customer> entities;
+    private byte[] remoteJson;
+
+    private ObjectMapper reflectionMapper;
+    private ObjectWriter responseWriter;
+    private ObjectReader remoteReader;
+
+    @Setup
+    public void setUp() throws Exception {
+        entities = IntStream.range(0, pageSize).mapToObj(CustomerJsonBenchmark::customer).toList();
+
+        reflectionMapper = JsonMapper.builder().build();
+        ObjectMapper blackbirdMapper = JsonMapper.builder().addModule(new BlackbirdModule()).build();
+        responseWriter = blackbirdMapper.writerFor(new TypeReference<List<CustomerResponse>>() {
+        });
+        remoteReader = blackbirdMapper.readerFor(CUSTOMER_LIST);
+
+        remoteJson = reflectionMapper.writeValueAsBytes(entities.stream()
+                .map(c -> new CustomerDTO(c.getUuid(), c.getFirstName(), c.getLastName(), c.getStreet(),
+                        c.getAddress(), c.getCity(), c.getState(), c.getEmail(), c.getPhone()))
+                .toList());
+    }
+
+    @Benchmark
+    public byte[] writeEntitiesWithReflection() throws Exception {
+        return reflectionMapper.writeValueAsBytes(entities);
+    }
+
+    // The record benchmarks include mapping the entities, as the controllers do on every response
+    @Benchmark
+    public byte[] writeRecordsWithReflection() throws Exception {
+        return reflectionMapper.writeValueAsBytes(entities.stream().map(CustomerResponse::from).toList());
+    }
+
+    @Benchmark
+    public byte[] writeRecordsWithBlackbird() throws Exception {
+        return responseWriter.writeValueAsBytes(entities.stream().map(CustomerResponse::from).toList());
+    }
+
+    @Benchmark
+    public List<CustomerDTO> readRemoteWithReflection() throws Exception {
+        return reflectionMapper.readValue(remoteJson, CUSTOMER_LIST);
+    }
+
+    @Benchmark
+    public List<CustomerDTO> readRemoteWithBlackbird() throws Exception {
+        return remoteReader.readValue(remoteJson);
+    }
+
+    private static Customer customer(int i) {
+        return new Customer("test0190f5c2a1b27c3d8e4f5a6b7c8d" + String.format("%04x", i), "First" + i, "Last" + i,
+                i + " Elvnu Street", "H no " + i, "City" + (i % 50), "State" + (i % 20),
+                "customer" + i + "@example.com", "98765" + String.format("%05d", i), null, null, null, null, null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CustomerJsonBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
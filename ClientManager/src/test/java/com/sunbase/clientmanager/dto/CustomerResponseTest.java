@@ -0,0 +1,58 @@
+package com.sunbase.clientmanager.dto;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.sunbase.clientmanager.entity.Customer;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The record DTOs replace the entity on the API, so they must produce and accept the same JSON.
+ */
+class CustomerResponseTest {
+
+    private final ObjectMapper reflectionMapper = JsonMapper.builder().build();
+    // Configured like Spring Boot's mapper, which ignores unknown properties
+    private final ObjectMapper blackbirdMapper = JsonMapper.builder()
+            .addModule(new BlackbirdModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    @Test
+    void responseSerializesLikeTheEntity() throws Exception {
+        Customer customer = new Customer("test0190f5c2a1b27c3d8e4f5a6b7c8d0001", "Jane", "Doe", "Elvnu Street",
+                "H no 2", "Delhi", "Delhi", "sam@gmail.com", "12345678", null, null,
+                "test0190f5c2a1b27c3d8e4f5a6b7c8d0000", null, 3L);
+        customer.refreshFingerprints();
+
+        assertEquals(reflectionMapper.readTree(reflectionMapper.writeValueAsString(customer)),
+                blackbirdMapper.readTree(blackbirdMapper.writeValueAsString(CustomerResponse.from(customer))));
+
+        customer.setDeletedAt(LocalDateTime.now());
+        assertEquals(reflectionMapper.readTree(reflectionMapper.writeValueAsString(customer)),
+                blackbirdMapper.readTree(blackbirdMapper.writeValueAsString(CustomerResponse.from(customer))));
+    }
+
+    @Test
+    void requestAndRemoteRecordsReadTheEntityFields() throws Exception {
+        String json = "{\"uuid\":\"test1\",\"firstName\":\"Jane\",\"lastName\":\"Doe\",\"street\":\"Elvnu Street\","
+                + "\"address\":\"H no 2\",\"city\":\"Delhi\",\"state\":\"Delhi\",\"email\":\"sam@gmail.com\","
+                + "\"phone\":\"12345678\",\"duplicateOf\":null}";
+
+        Customer customer = blackbirdMapper.readValue(json, CustomerRequest.class).toCustomer();
+        assertEquals(new Customer(null, "Jane", "Doe", "Elvnu Street", "H no 2", "Delhi", "Delhi", "sam@gmail.com",
+                "12345678", null, null, null, null, null), customer);
+
+        List<CustomerDTO> remote = blackbirdMapper.readValue("[" + json + "]", new TypeReference<>() {
+        });
+        assertEquals(new CustomerDTO("test1", "Jane", "Doe", "Elvnu Street", "H no 2", "Delhi", "Delhi",
+                "sam@gmail.com", "12345678"), remote.get(0));
+    }
+}
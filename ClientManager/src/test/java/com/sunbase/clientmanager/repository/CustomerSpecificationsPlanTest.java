@@ -0,0 +1,123 @@
+package com.sunbase.clientmanager.repository;
+
+import com.sunbase.clientmanager.dto.CustomerFilter;
+import com.sunbase.clientmanager.service.CustomerService;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Captures the SQL Hibernate generates for each supported filter combination and checks with
+ * H2's EXPLAIN that both the page query and the count query use an index on the filtered columns.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.sunbase.clientmanager.repository.CustomerSpecificationsPlanTest$SqlCapture")
+@ActiveProfiles("test")
+class CustomerSpecificationsPlanTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @BeforeAll
+    static void seedCustomers(@Autowired DataSource dataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO customer (uuid, first_name, last_name, city, state, email, phone) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                IntStream.range(0, 2000)
+                        .mapToObj(i -> new Object[]{"plan" + i, "First" + i, "Last" + i, "City" + (i % 500),
+                                "State" + (i % 200), "plan" + i + "@example.com", String.valueOf(9_000_000 + i)})
+                        .toList());
+        // Refresh H2's selectivity statistics so it costs the indexes like a populated MySQL table
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    static Stream<Arguments> filterCombinations() {
+        return Stream.of(
+                Arguments.of("city", new CustomerFilter("Delhi", null, null, null, null, null),
+                        List.of("idx_customer_city_state_first_name")),
+                Arguments.of("state", new CustomerFilter(null, "Delhi", null, null, null, null),
+                        List.of("idx_customer_state_first_name")),
+                Arguments.of("city and state", new CustomerFilter("Delhi", "Delhi", null, null, null, null),
+                        List.of("idx_customer_city_state_first_name")),
+                Arguments.of("city, state and first name", new CustomerFilter("Delhi", "Delhi", "Ja", null, null, null),
+                        List.of("idx_customer_city_state_first_name")),
+                Arguments.of("city and first name", new CustomerFilter("Delhi", null, "Ja", null, null, null),
+                        List.of("idx_customer_city_state_first_name", "idx_customer_first_name")),
+                Arguments.of("state and first name", new CustomerFilter(null, "Delhi", "Ja", null, null, null),
+                        List.of("idx_customer_state_first_name", "idx_customer_first_name")),
+                Arguments.of("first name", new CustomerFilter(null, null, "Ja", null, null, null),
+                        List.of("idx_customer_first_name")),
+                Arguments.of("last name", new CustomerFilter(null, null, null, "Do", null, null),
+                        List.of("idx_customer_last_name")),
+                Arguments.of("email", new CustomerFilter(null, null, null, null, "jane@example.com", null),
+                        List.of("idx_customer_email")),
+                Arguments.of("phone", new CustomerFilter(null, null, null, null, null, "12345678"),
+                        List.of("idx_customer_phone")),
+                Arguments.of("city and last name", new CustomerFilter("Delhi", null, null, "Do", null, null),
+                        List.of("idx_customer_city_state_first_name", "idx_customer_last_name")));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("filterCombinations")
+    void filterCombinationUsesAnIndex(String name, CustomerFilter filter, List<String> expectedIndexes)
+            throws SQLException {
+        SqlCapture.STATEMENTS.clear();
+        customerService.searchCustomers(filter, 0, 10, "lastName", "asc");
+
+        List<String> selects = SqlCapture.STATEMENTS.stream()
+                .filter(sql -> sql.startsWith("select") && sql.contains(" from customer "))
+                .toList();
+        assertFalse(selects.isEmpty());
+
+        for (String sql : selects) {
+            String plan = explain(sql);
+            assertTrue(expectedIndexes.stream().anyMatch(plan::contains),
+                    name + " should use one of " + expectedIndexes + ": " + plan);
+        }
+    }
+
+    private String explain(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                statement.setString(i, "1");
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+
+    public static class SqlCapture implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
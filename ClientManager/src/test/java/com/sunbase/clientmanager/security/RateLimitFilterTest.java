@@ -0,0 +1,105 @@
+package com.sunbase.clientmanager.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private AdmissionControl admissionControl;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void createFilter() {
+        admissionControl = new AdmissionControl();
+        ReflectionTestUtils.setField(admissionControl, "enabled", true);
+        ReflectionTestUtils.setField(admissionControl, "requestsPerSecond", 1.0);
+        ReflectionTestUtils.setField(admissionControl, "burst", 3);
+        ReflectionTestUtils.setField(admissionControl, "idleMinutes", 10L);
+        ReflectionTestUtils.setField(admissionControl, "listMaxConcurrent", 4);
+        ReflectionTestUtils.setField(admissionControl, "listQueueTimeoutMs", 0L);
+        ReflectionTestUtils.setField(admissionControl, "syncMaxConcurrent", 1);
+        ReflectionTestUtils.setField(admissionControl, "syncQueueTimeoutMs", 0L);
+        admissionControl.init();
+        filter = new RateLimitFilter(admissionControl, new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @AfterEach
+    void clearUser() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void tokenBucketAllowsBurstThenRefillsAtRate() {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        TokenBucket bucket = new TokenBucket(2, 3, 0);
+
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(0));
+        assertEquals(second / 2, bucket.tryAcquire(0));
+        assertEquals(0, bucket.tryAcquire(second / 2));
+        assertTrue(bucket.tryAcquire(second / 2) > 0);
+    }
+
+    @Test
+    void usersOverTheirRateGet429WithRetryAfter() throws Exception {
+        authenticate("alice");
+        for (int i = 0; i < 3; i++) {
+            assertEquals(200, call("GET", "/api/customers/abc").getStatus());
+        }
+
+        MockHttpServletResponse rejected = call("GET", "/api/customers/abc");
+        assertEquals(429, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("Rate limit exceeded"));
+
+        // Buckets are per user
+        authenticate("bob");
+        assertEquals(200, call("GET", "/api/customers/abc").getStatus());
+    }
+
+    @Test
+    void concurrentSyncIsRejectedWhileOneRuns() throws Exception {
+        authenticate("alice");
+        ConcurrencyLimiter sync = admissionControl.limiterFor(request("POST", "/api/customers/sync"));
+        assertTrue(sync.tryEnter());
+        try {
+            assertEquals(429, call("POST", "/api/customers/sync").getStatus());
+        } finally {
+            sync.exit();
+        }
+        assertEquals(200, call("POST", "/api/customers/sync").getStatus());
+        assertNull(admissionControl.limiterFor(request("GET", "/api/customers/abc")));
+    }
+
+    private MockHttpServletResponse call(String method, String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(method, path), response, new MockFilterChain());
+        return response;
+    }
+
+    private MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        return request;
+    }
+
+    private void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, AuthorityUtils.NO_AUTHORITIES));
+    }
+}
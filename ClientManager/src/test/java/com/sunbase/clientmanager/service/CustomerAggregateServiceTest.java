@@ -0,0 +1,81 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.dto.AggregateCount;
+import com.sunbase.clientmanager.entity.Customer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the incrementally maintained rollup matches a GROUP BY over the customer table
+ * after creates, moves between cities and states, single and bulk deletes.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CustomerAggregateServiceTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerAggregateService aggregateService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void rollupMatchesGroupByAfterWrites() {
+        aggregateService.rebuild();
+
+        Customer agra = customerService.createCustomer(newCustomer("Agra", "UP"));
+        Customer noida = customerService.createCustomer(newCustomer("Noida", "UP"));
+        Customer surat = customerService.createCustomer(newCustomer("Surat", "GJ"));
+        Customer nowhere = customerService.createCustomer(newCustomer(null, null));
+
+        Customer moved = newCustomer("Vadodara", "GJ");
+        customerService.updateCustomer(noida.getUuid(), moved);
+        customerService.deleteCustomer(agra.getUuid());
+        customerService.deleteCustomers(List.of(surat.getUuid(), nowhere.getUuid(), "missing"));
+
+        assertEquals(groupBy("city"), toMap(aggregateService.getDistribution("city", 0)));
+        assertEquals(groupBy("state"), toMap(aggregateService.getDistribution("state", 0)));
+    }
+
+    @Test
+    void topReturnsLargestValuesFirst() {
+        customerService.createCustomer(newCustomer("Jaipur", "RJ"));
+        customerService.createCustomer(newCustomer("Jaipur", "RJ"));
+        aggregateService.rebuild();
+
+        List<AggregateCount> top = aggregateService.getDistribution("state", 1);
+
+        assertEquals(1, top.size());
+        assertEquals(groupBy("state").values().stream().max(Long::compare).orElseThrow(), top.get(0).count());
+    }
+
+    private Map<String, Long> groupBy(String column) {
+        return jdbcTemplate.queryForList("SELECT COALESCE(" + column + ", '') AS v, COUNT(*) AS n FROM customer "
+                        + "WHERE deleted_at IS NULL GROUP BY COALESCE(" + column + ", '')").stream()
+                .collect(Collectors.toMap(row -> (String) row.get("v"), row -> ((Number) row.get("n")).longValue()));
+    }
+
+    private Map<String, Long> toMap(List<AggregateCount> counts) {
+        return counts.stream().collect(Collectors.toMap(AggregateCount::value, AggregateCount::count));
+    }
+
+    private Customer newCustomer(String city, String state) {
+        Customer customer = new Customer();
+        customer.setFirstName("Aarav");
+        customer.setCity(city);
+        customer.setState(state);
+        return customer;
+    }
+}
@@ -0,0 +1,284 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.entity.CustomerChangeEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Outbox ids are assigned on insert but become visible on commit. These tests hold a transaction open
+ * after it took an id, commit a later one, and check that relay, poll and replay never read past the gap.
+ */
+@SpringBootTest(properties = {
+        "clientmanager.changes.relay-interval-ms=3600000",
+        "clientmanager.changes.sse-queue-size=5",
+        "clientmanager.changes.sse-max-replay=3"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@WithMockUser
+class CustomerChangeOutboxTest {
+
+    @Autowired
+    private CustomerChangeService changeService;
+
+    @Autowired
+    private CustomerChangeRelay relay;
+
+    @Autowired
+    private RecordingPublisher recordingPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SseCustomerChangePublisher ssePublisher;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @TestConfiguration
+    static class PublisherConfig {
+
+        @Bean
+        RecordingPublisher recordingPublisher() {
+            return new RecordingPublisher();
+        }
+    }
+
+    static class RecordingPublisher implements CustomerChangePublisher {
+
+        final List<CustomerChangeEvent> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void publish(int shard, List<CustomerChangeEvent> events) {
+            this.events.addAll(events);
+        }
+    }
+
+    @Test
+    void eventsCommittedLateAreNotSkipped() throws Exception {
+        String late = "late-" + UUID.randomUUID();
+        String early = "early-" + UUID.randomUUID();
+        long before = committedMaxId();
+
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread lateWriter = new Thread(() -> transactionTemplate.executeWithoutResult(status -> {
+            changeService.recordDeletion(late);
+            inserted.countDown();
+            try {
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        lateWriter.start();
+        assertTrue(inserted.await(10, TimeUnit.SECONDS));
+        transactionTemplate.executeWithoutResult(status -> changeService.recordDeletion(early));
+
+        // The later event is committed, but the earlier id is still pending
+        assertEquals(List.of(), uuidsAfter(before));
+        assertTrue(changeService.getLatestOffset() <= before);
+        mockMvc.perform(get("/api/customers/changes/poll").param("after", String.valueOf(before)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+        relay.relay();
+        assertEquals(List.of(), relayed(late, early));
+
+        release.countDown();
+        lateWriter.join();
+
+        assertEquals(List.of(late, early), uuidsAfter(before));
+        relay.relay();
+        assertEquals(List.of(late, early), relayed(late, early));
+        mockMvc.perform(get("/api/customers/changes/poll").param("after", String.valueOf(before)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].customerUuid").value(late))
+                .andExpect(jsonPath("$[1].customerUuid").value(early));
+
+        // Replay sends the backlog once the stream is returned, before it goes live
+        MockHttpServletResponse response = mockMvc.perform(get("/api/customers/changes").param("after", String.valueOf(before)))
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!response.getContentAsString().contains(early) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        String stream = response.getContentAsString();
+        assertTrue(stream.indexOf(late) >= 0 && stream.indexOf(late) < stream.indexOf(early), stream);
+    }
+
+    @Test
+    void browsersCanReadTheCursorAndRetryHeaders() throws Exception {
+        mockMvc.perform(get("/api/customers/changes/poll")
+                        .param("after", changeService.getLatestCursor())
+                        .header(HttpHeaders.ORIGIN, "http://localhost:3000"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("X-Change-Cursor"))
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, containsString("X-Change-Cursor")))
+                .andExpect(header().string(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, containsString("Retry-After")));
+    }
+
+    @Test
+    void slowSubscriberDoesNotHoldUpTheOthers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter stalled = new RecordingEmitter(release);
+        RecordingEmitter live = new RecordingEmitter(null);
+        String cursor = changeService.getLatestCursor();
+        ssePublisher.subscribe(cursor, stalled);
+        ssePublisher.subscribe(cursor, live);
+
+        // Ids above anything stored, so only these events are sent. Once the live stream has the first one,
+        // both replays are done and the stalled stream is stuck sending it
+        long base = Long.MAX_VALUE / 2;
+        ssePublisher.publish(0, List.of(event(base, "stalled-0")));
+        assertTrue(stalled.sending.await(10, TimeUnit.SECONDS));
+        awaitSent(live, "stalled-0");
+
+        // The stalled stream holds 5 more events; the one after that closes it, without blocking the relay
+        ssePublisher.publish(0, LongStream.rangeClosed(1, 5).mapToObj(i -> event(base + i, "stalled-" + i)).toList());
+        awaitSent(live, "stalled-5");
+        long started = System.nanoTime();
+        ssePublisher.publish(0, List.of(event(base + 6, "stalled-6")));
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(1));
+
+        assertTrue(stalled.completed.await(10, TimeUnit.SECONDS));
+        awaitSent(live, "stalled-6");
+        assertEquals(1, live.completed.getCount());
+        release.countDown();
+    }
+
+    @Test
+    void replayStopsAtTheMaximum() throws Exception {
+        long before = committedMaxId();
+        List<String> deleted = IntStream.range(0, 5).mapToObj(i -> "replayed-" + i + "-" + UUID.randomUUID()).toList();
+        for (String uuid : deleted) {
+            transactionTemplate.executeWithoutResult(status -> changeService.recordDeletion(uuid));
+        }
+
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        ssePublisher.subscribe(String.valueOf(before), emitter);
+
+        // The client resumes from the last event id it received
+        assertTrue(emitter.completed.await(10, TimeUnit.SECONDS));
+        assertEquals(3, emitter.sent.size());
+        for (int i = 0; i < 3; i++) {
+            assertTrue(emitter.sent.get(i).contains(deleted.get(i)), emitter.sent.get(i));
+        }
+    }
+
+    private static void awaitSent(RecordingEmitter emitter, String uuid) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (emitter.sent.stream().noneMatch(data -> data.contains(uuid)) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(emitter.sent.stream().anyMatch(data -> data.contains(uuid)), uuid + " not sent: " + emitter.sent);
+    }
+
+    // Records what is sent instead of writing a response; with a release latch, the first send blocks on it
+    static class RecordingEmitter extends SseEmitter {
+
+        final List<String> sent = new CopyOnWriteArrayList<>();
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                if (release != null && !release.await(10, TimeUnit.SECONDS)) {
+                    throw new IOException("Never released");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            sent.add(builder.build().stream().map(data -> String.valueOf(data.getData())).collect(Collectors.joining()));
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+
+    private static CustomerChangeEvent event(long id, String uuid) {
+        return new CustomerChangeEvent(id, uuid, CustomerChangeEvent.ChangeType.DELETED, null, LocalDateTime.now());
+    }
+
+    @Test
+    void gapsOlderThanTheTimeoutAreTreatedAsRolledBack() {
+        String rolledBack = "rolled-back-" + UUID.randomUUID();
+        String next = "next-" + UUID.randomUUID();
+        long before = committedMaxId();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            changeService.recordDeletion(rolledBack);
+            status.setRollbackOnly();
+        });
+        transactionTemplate.executeWithoutResult(status -> changeService.recordDeletion(next));
+        assertEquals(List.of(), uuidsAfter(before));
+
+        jdbcTemplate.update("UPDATE customer_change_event SET created_at = DATEADD('HOUR', -1, created_at) "
+                + "WHERE customer_uuid = ?", next);
+
+        assertEquals(List.of(next), uuidsAfter(before));
+        assertEquals(committedMaxId(), changeService.getLatestOffset());
+    }
+
+    private long committedMaxId() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM customer_change_event", Long.class);
+    }
+
+    private List<String> uuidsAfter(long offset) {
+        return changeService.getChangesAfter(offset, 100).stream().map(CustomerChangeEvent::getCustomerUuid).toList();
+    }
+
+    private List<String> relayed(String... uuids) {
+        List<String> wanted = List.of(uuids);
+        return recordingPublisher.events.stream()
+                .map(CustomerChangeEvent::getCustomerUuid)
+                .filter(wanted::contains)
+                .toList();
+    }
+}
@@ -0,0 +1,183 @@
+package com.sunbase.clientmanager.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sunbase.clientmanager.controller.CustomerController;
+import com.sunbase.clientmanager.dto.CustomerDTO;
+import com.sunbase.clientmanager.dto.CustomerRequest;
+import com.sunbase.clientmanager.dto.CustomerResponse;
+import com.sunbase.clientmanager.dto.DuplicateCluster;
+import com.sunbase.clientmanager.dto.DuplicateReport;
+import com.sunbase.clientmanager.entity.Customer;
+import com.sunbase.clientmanager.entity.CustomerChangeEvent;
+import com.sunbase.clientmanager.entity.CustomerChangeEvent.ChangeType;
+import com.sunbase.clientmanager.entity.CustomerRemoteDuplicate;
+import com.sunbase.clientmanager.entity.CustomerRemoteDuplicate.Resolution;
+import com.sunbase.clientmanager.repository.CustomerRemoteDuplicateRepository;
+import com.sunbase.clientmanager.service.CustomerDuplicateService.DuplicatePolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CustomerDuplicateServiceTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerServiceImpl customerServiceImpl;
+
+    @Autowired
+    private CustomerDuplicateService duplicateService;
+
+    @Autowired
+    private CustomerRemoteDuplicateRepository remoteDuplicateRepository;
+
+    @Autowired
+    private CustomerController customerController;
+
+    @Autowired
+    private CustomerChangeService changeService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void restorePolicy() {
+        setPolicy(DuplicatePolicy.FLAG);
+    }
+
+    @Test
+    void flaggedDuplicatesAreClusteredThroughEmailAndPhone() {
+        String token = UUID.randomUUID().toString().substring(0, 8);
+        Customer first = customerService.createCustomer(newCustomer(token + "@example.com", "98" + digits(token)));
+        Customer sameEmail = customerService.createCustomer(newCustomer(token.toUpperCase() + "+promo@Example.com", null));
+        Customer samePhone = customerService.createCustomer(
+                newCustomer("other-" + token + "@example.com", "+91 98" + digits(token)));
+
+        assertNull(first.getDuplicateOf());
+        assertEquals(first.getUuid(), sameEmail.getDuplicateOf());
+        assertEquals(first.getUuid(), samePhone.getDuplicateOf());
+
+        DuplicateReport report = duplicateService.getReport(Integer.MAX_VALUE);
+        DuplicateCluster cluster = report.clusters().stream()
+                .filter(candidate -> candidate.uuids().contains(first.getUuid()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(List.of(first.getUuid(), samePhone.getUuid(), sameEmail.getUuid()).stream().sorted().toList(),
+                cluster.uuids());
+        assertEquals(List.of(token + "@example.com"), cluster.emailFingerprints());
+    }
+
+    @Test
+    void mergeFillsBlankFieldsOfTheExistingCustomer() {
+        setPolicy(DuplicatePolicy.MERGE);
+        String email = UUID.randomUUID() + "@example.com";
+        Customer existing = customerService.createCustomer(newCustomer(email, null));
+
+        Customer incoming = newCustomer(email.toUpperCase(), null);
+        incoming.setCity("Pune");
+        Customer merged = customerService.createCustomer(incoming);
+
+        assertEquals(existing.getUuid(), merged.getUuid());
+        assertEquals("Pune", customerService.getCustomerById(existing.getUuid()).getCity());
+    }
+
+    @Test
+    void mergedCreateAnswersWithTheExistingCustomer() {
+        setPolicy(DuplicatePolicy.MERGE);
+        String email = UUID.randomUUID() + "@example.com";
+        CustomerRequest request = new CustomerRequest("Ishaan", null, null, null, null, null, email, null);
+
+        ResponseEntity<CustomerResponse> created = customerController.createCustomer(request);
+        ResponseEntity<CustomerResponse> merged = customerController.createCustomer(
+                new CustomerRequest("Ishaan", null, null, null, "Pune", null, email, null));
+
+        assertEquals(HttpStatus.CREATED, created.getStatusCode());
+        assertEquals(HttpStatus.OK, merged.getStatusCode());
+        assertEquals(created.getBody().uuid(), merged.getBody().uuid());
+        assertEquals("Pune", merged.getBody().city());
+        assertEquals("\"1\"", merged.getHeaders().getETag());
+    }
+
+    @Test
+    void syncRecordsMergedAndRejectedRemoteIds() {
+        for (DuplicatePolicy policy : List.of(DuplicatePolicy.MERGE, DuplicatePolicy.REJECT)) {
+            setPolicy(policy);
+            String email = UUID.randomUUID() + "@example.com";
+            Customer existing = customerService.createCustomer(newCustomer(email, null));
+            String remoteUuid = "test" + UUID.randomUUID().toString().replace("-", "");
+            List<CustomerDTO> remote = List.of(
+                    new CustomerDTO(remoteUuid, "Remote", null, null, null, "Delhi", null, email, null));
+
+            assertEquals(0, customerServiceImpl.syncRemoteCustomers(remote));
+
+            CustomerRemoteDuplicate recorded = remoteDuplicateRepository.findById(remoteUuid).orElseThrow();
+            assertEquals(existing.getUuid(), recorded.getCustomerUuid());
+            assertEquals(policy == DuplicatePolicy.MERGE ? Resolution.MERGED : Resolution.REJECTED,
+                    recorded.getResolution());
+            // The next sync treats the remote id as known instead of matching it again
+            assertTrue(customerServiceImpl.findNewCustomers(remote).isEmpty());
+        }
+    }
+
+    @Test
+    void syncMergeEventCarriesTheMergedVersion() throws Exception {
+        setPolicy(DuplicatePolicy.MERGE);
+        String email = UUID.randomUUID() + "@example.com";
+        Customer existing = customerService.createCustomer(newCustomer(email, null));
+        String remoteUuid = "test" + UUID.randomUUID().toString().replace("-", "");
+        String cursor = changeService.getLatestCursor();
+
+        assertEquals(0, customerServiceImpl.syncRemoteCustomers(List.of(
+                new CustomerDTO(remoteUuid, "Remote", null, null, null, "Delhi", null, email, null))));
+
+        CustomerChangeEvent updated = changeService.getChanges(cursor, 100).events().stream()
+                .filter(event -> event.getCustomerUuid().equals(existing.getUuid()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(ChangeType.UPDATED, updated.getChangeType());
+        CustomerResponse payload = objectMapper.readValue(updated.getPayload(), CustomerResponse.class);
+        assertEquals("Delhi", payload.city());
+        assertEquals(customerService.getCustomerById(existing.getUuid()).getVersion(), payload.version());
+        assertEquals(existing.getVersion() + 1, payload.version());
+    }
+
+    @Test
+    void rejectRefusesDuplicates() {
+        setPolicy(DuplicatePolicy.REJECT);
+        String email = UUID.randomUUID() + "@example.com";
+        customerService.createCustomer(newCustomer(email, null));
+
+        assertThrows(RuntimeException.class, () -> customerService.createCustomer(newCustomer(" " + email, null)));
+    }
+
+    private void setPolicy(DuplicatePolicy policy) {
+        Object target = AopTestUtils.getTargetObject(duplicateService);
+        ReflectionTestUtils.setField(target, "policy", policy);
+    }
+
+    private String digits(String token) {
+        return String.format("%08d", Math.abs(token.hashCode()) % 100_000_000);
+    }
+
+    private Customer newCustomer(String email, String phone) {
+        Customer customer = new Customer();
+        customer.setFirstName("Ishaan");
+        customer.setEmail(email);
+        customer.setPhone(phone);
+        return customer;
+    }
+}
@@ -0,0 +1,93 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.entity.Customer;
+import com.sunbase.clientmanager.exception.ClientManagerException;
+import com.sunbase.clientmanager.type.CustomerIdCodec;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CustomerPatchTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerIdCodec customerIdCodec;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void patchSetsAndClearsOnlyTheGivenFields() {
+        Customer created = customerService.createCustomer(newCustomer());
+        assertEquals(0L, created.getVersion());
+
+        Map<String, Object> patch = new HashMap<>();
+        patch.put("city", "Mumbai");
+        patch.put("phone", null);
+        Customer patched = customerService.patchCustomer(created.getUuid(), patch, 0L);
+
+        assertEquals("Mumbai", patched.getCity());
+        assertNull(patched.getPhone());
+        assertEquals("Patch", patched.getFirstName());
+        assertEquals("patch@example.com", patched.getEmail());
+        assertEquals(1L, patched.getVersion());
+        assertEquals(1L, customerService.getCustomerById(created.getUuid()).getVersion());
+
+        // Nothing changes, so nothing is written
+        assertEquals(1L, customerService.patchCustomer(created.getUuid(), Map.of("city", "Mumbai"), null).getVersion());
+    }
+
+    @Test
+    void updatesWriteOnlyTheChangedColumns() {
+        Customer created = customerService.createCustomer(newCustomer());
+        Object id = customerIdCodec.toDatabase(created.getUuid());
+        // Changed behind Hibernate's back; a full-row UPDATE would overwrite it with the cached value
+        jdbcTemplate.update("UPDATE customer SET last_name = 'Direct' WHERE uuid = ?", id);
+
+        customerService.patchCustomer(created.getUuid(), Map.of("city", "Pune"), null);
+
+        assertEquals("Direct", jdbcTemplate.queryForObject("SELECT last_name FROM customer WHERE uuid = ?", String.class, id));
+        assertEquals("Pune", jdbcTemplate.queryForObject("SELECT city FROM customer WHERE uuid = ?", String.class, id));
+    }
+
+    @Test
+    void staleVersionsAndUnknownFieldsAreRejected() {
+        Customer created = customerService.createCustomer(newCustomer());
+        customerService.patchCustomer(created.getUuid(), Map.of("city", "Chennai"), 0L);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> customerService.patchCustomer(created.getUuid(), Map.of("city", "Kolkata"), 0L));
+        Customer stalePut = newCustomer();
+        stalePut.setVersion(0L);
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> customerService.updateCustomer(created.getUuid(), stalePut));
+        assertThrows(ClientManagerException.class,
+                () -> customerService.patchCustomer(created.getUuid(), Map.of("uuid", "other"), null));
+        assertThrows(ClientManagerException.class,
+                () -> customerService.patchCustomer(created.getUuid(), Map.of("city", 5), null));
+
+        assertEquals("Chennai", customerService.getCustomerById(created.getUuid()).getCity());
+        assertEquals(2L, customerService.updateCustomer(created.getUuid(), newCustomer()).getVersion());
+    }
+
+    private Customer newCustomer() {
+        Customer customer = new Customer();
+        customer.setFirstName("Patch");
+        customer.setCity("Delhi");
+        customer.setEmail("patch@example.com");
+        customer.setPhone("12345678");
+        return customer;
+    }
+}
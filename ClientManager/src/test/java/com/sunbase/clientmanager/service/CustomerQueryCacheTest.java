@@ -0,0 +1,117 @@
+package com.sunbase.clientmanager.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CustomerQueryCacheTest {
+
+    private static final int CALLERS = 32;
+
+    private CustomerQueryCache queryCache;
+
+    @BeforeEach
+    void createCache() {
+        queryCache = new CustomerQueryCache();
+        ReflectionTestUtils.setField(queryCache, "pageTtlMs", 60_000L);
+        ReflectionTestUtils.setField(queryCache, "countTtlMs", 60_000L);
+        ReflectionTestUtils.setField(queryCache, "maxEntries", 100L);
+        ReflectionTestUtils.setField(queryCache, "waitTimeoutMs", 5_000L);
+        queryCache.init();
+    }
+
+    @Test
+    void concurrentIdenticalQueriesRunOnce() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> queryCache.page("city=Delhi", () -> {
+                    executions.incrementAndGet();
+                    await(release);
+                    return "page";
+                })));
+            }
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("page", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void writesInvalidateCachedResults() {
+        AtomicInteger executions = new AtomicInteger();
+
+        queryCache.count("all", () -> (long) executions.incrementAndGet());
+        assertEquals(1, queryCache.count("all", () -> (long) executions.incrementAndGet()));
+
+        queryCache.invalidateAfterCommit();
+        assertEquals(2, queryCache.count("all", () -> (long) executions.incrementAndGet()));
+    }
+
+    @Test
+    void failuresAreNotCached() {
+        assertThrows(IllegalStateException.class, () -> queryCache.page("broken", () -> {
+            throw new IllegalStateException("database down");
+        }));
+        assertEquals("page", queryCache.page("broken", () -> "page"));
+    }
+
+    @Test
+    void followersStopWaitingForAHungQuery() throws Exception {
+        ReflectionTestUtils.setField(queryCache, "waitTimeoutMs", 100L);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> hung = executor.submit(() -> queryCache.page("city=Pune", () -> {
+                await(release);
+                return "late";
+            }));
+            Thread.sleep(100);
+
+            assertEquals("own", queryCache.page("city=Pune", () -> "own"));
+            release.countDown();
+            assertEquals("late", hung.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void resultsAreNotKeptWithReadReplicas() {
+        ReflectionTestUtils.setField(queryCache, "replicaReads", true);
+        AtomicInteger executions = new AtomicInteger();
+
+        queryCache.count("all", () -> (long) executions.incrementAndGet());
+
+        assertEquals(2, queryCache.count("all", () -> (long) executions.incrementAndGet()));
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
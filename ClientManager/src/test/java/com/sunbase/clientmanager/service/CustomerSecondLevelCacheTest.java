@@ -0,0 +1,138 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.entity.Customer;
+import com.sunbase.clientmanager.repository.CustomerRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Counts the JDBC statements that repeated lookups prepare with the second-level and query caches in use,
+ * and with both bypassed through {@link CacheMode#IGNORE}.
+ */
+@SpringBootTest(properties = {
+        // Keeps the background jobs from preparing statements while these tests count them
+        "clientmanager.changes.relay-interval-ms=3600000",
+        "clientmanager.purge.interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class CustomerSecondLevelCacheTest {
+
+    private static final int LOOKUPS = 5;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private String city;
+    private String uuid;
+
+    @BeforeEach
+    void seedCustomers() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        city = "City-" + UUID.randomUUID();
+        for (int i = 0; i < 3; i++) {
+            uuid = customerService.createCustomer(newCustomer(i)).getUuid();
+        }
+    }
+
+    @Test
+    void lookupByIdIsServedFromTheEntityCache() {
+        lookupById(CacheMode.NORMAL);
+
+        assertEquals(0, countStatements(() -> lookupById(CacheMode.NORMAL)));
+        assertEquals(LOOKUPS, countStatements(() -> lookupById(CacheMode.IGNORE)));
+    }
+
+    @Test
+    void citySliceIsServedFromTheQueryCache() {
+        findByCity(CacheMode.NORMAL);
+
+        assertEquals(0, countStatements(() -> findByCity(CacheMode.NORMAL)));
+        assertEquals(LOOKUPS, countStatements(() -> findByCity(CacheMode.IGNORE)));
+    }
+
+    @Test
+    void writeInvalidatesTheCachedQuery() {
+        findByCity(CacheMode.NORMAL);
+        customerService.createCustomer(newCustomer(3));
+
+        // Only the first lookup after the insert goes to the database
+        assertEquals(1, countStatements(() -> findByCity(CacheMode.NORMAL)));
+    }
+
+    private void lookupById(CacheMode cacheMode) {
+        for (int i = 0; i < LOOKUPS; i++) {
+            transactionTemplate.executeWithoutResult(status -> {
+                useCacheMode(cacheMode);
+                customerService.getCustomerById(uuid);
+            });
+        }
+    }
+
+    private void findByCity(CacheMode cacheMode) {
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("city"));
+        for (int i = 0; i < LOOKUPS; i++) {
+            transactionTemplate.executeWithoutResult(status -> {
+                useCacheMode(cacheMode);
+                customerRepository.findByCity(city, pageable);
+            });
+        }
+    }
+
+    // find() reads the JPA cache modes from the session properties, queries read the session cache mode
+    private void useCacheMode(CacheMode cacheMode) {
+        entityManager.setProperty(AvailableSettings.JAKARTA_SHARED_CACHE_RETRIEVE_MODE, cacheMode.getJpaRetrieveMode());
+        entityManager.setProperty(AvailableSettings.JAKARTA_SHARED_CACHE_STORE_MODE, cacheMode.getJpaStoreMode());
+        entityManager.unwrap(Session.class).setCacheMode(cacheMode);
+    }
+
+    private long countStatements(Runnable lookups) {
+        statistics.clear();
+        lookups.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Customer newCustomer(int i) {
+        Customer customer = new Customer();
+        customer.setFirstName("First" + i);
+        customer.setLastName("Last" + i);
+        customer.setStreet("Street " + i);
+        customer.setAddress("House " + i);
+        customer.setCity(city);
+        customer.setState("State");
+        customer.setEmail("cache" + UUID.randomUUID() + "@example.com");
+        customer.setPhone(String.valueOf(9_000_000 + i));
+        return customer;
+    }
+}
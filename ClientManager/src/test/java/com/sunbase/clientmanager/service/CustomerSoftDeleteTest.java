@@ -0,0 +1,127 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.dto.CustomerDTO;
+import com.sunbase.clientmanager.dto.CustomerFilter;
+import com.sunbase.clientmanager.entity.Customer;
+import com.sunbase.clientmanager.exception.ClientManagerException;
+import com.sunbase.clientmanager.type.CustomerIdCodec;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CustomerSoftDeleteTest {
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerServiceImpl customerServiceImpl;
+
+    @Autowired
+    private CustomerPurger purger;
+
+    @Autowired
+    private CustomerIdCodec customerIdCodec;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void deletedCustomersAreHiddenButKept() {
+        String city = "Hidden" + UUID.randomUUID();
+        Customer kept = customerService.createCustomer(newCustomer(city));
+        Customer deleted = customerService.createCustomer(newCustomer(city));
+
+        customerService.deleteCustomer(deleted.getUuid());
+
+        assertEquals(List.of(kept.getUuid()), customerService.getAllCustomers(0, 10, "city", city).getContent()
+                .stream().map(Customer::getUuid).toList());
+        assertEquals(1, customerService.searchCustomers(new CustomerFilter(city, null, null, null, null, null),
+                0, 10, "uuid", "asc").getTotalElements());
+        assertThrows(ClientManagerException.class, () -> customerService.getCustomerById(deleted.getUuid()));
+        assertThrows(ClientManagerException.class, () -> customerService.deleteCustomer(deleted.getUuid()));
+        assertEquals(1, countRows("customer", deleted.getUuid()));
+    }
+
+    @Test
+    void bulkDeleteCountsOnlyActiveCustomers() {
+        String city = "Bulk" + UUID.randomUUID();
+        Customer first = customerService.createCustomer(newCustomer(city));
+        Customer second = customerService.createCustomer(newCustomer(city));
+        Customer alreadyDeleted = customerService.createCustomer(newCustomer(city));
+        customerService.deleteCustomer(alreadyDeleted.getUuid());
+
+        assertEquals(2, customerService.deleteCustomers(List.of(first.getUuid(), second.getUuid(),
+                alreadyDeleted.getUuid(), customerIdCodec.newId())));
+        assertEquals(0, customerService.getAllCustomers(0, 10, "city", city).getTotalElements());
+        assertThrows(ClientManagerException.class, () -> customerService.deleteCustomers(List.of()));
+    }
+
+    @Test
+    void purgerRemovesOnlyCustomersPastTheGracePeriodAndLeavesTombstones() {
+        String city = "Purge" + UUID.randomUUID();
+        Customer expired = customerService.createCustomer(newCustomer(city));
+        Customer recent = customerService.createCustomer(newCustomer(city));
+        Customer active = customerService.createCustomer(newCustomer(city));
+        customerService.deleteCustomers(List.of(expired.getUuid(), recent.getUuid()));
+        // The default grace period is 60 minutes
+        jdbcTemplate.update("UPDATE customer SET deleted_at = DATEADD('MINUTE', -61, deleted_at) WHERE uuid = ?",
+                customerIdCodec.toDatabase(expired.getUuid()));
+
+        purger.purge();
+
+        assertEquals(0, countRows("customer", expired.getUuid()));
+        assertEquals(1, countRows("customer_tombstone", expired.getUuid()));
+        assertEquals(1, countRows("customer", recent.getUuid()));
+        assertEquals(0, countRows("customer_tombstone", recent.getUuid()));
+        assertEquals(active.getUuid(), customerService.getCustomerById(active.getUuid()).getUuid());
+    }
+
+    @Test
+    void syncDoesNotReinsertDeletedOrPurgedCustomers() {
+        String city = "Resync" + UUID.randomUUID();
+        Customer purged = customerService.createCustomer(newCustomer(city));
+        Customer deleted = customerService.createCustomer(newCustomer(city));
+        customerService.deleteCustomers(List.of(purged.getUuid(), deleted.getUuid()));
+        jdbcTemplate.update("UPDATE customer SET deleted_at = DATEADD('MINUTE', -61, deleted_at) WHERE uuid = ?",
+                customerIdCodec.toDatabase(purged.getUuid()));
+        purger.purge();
+        String added = customerIdCodec.newId();
+
+        int saved = customerServiceImpl.syncRemoteCustomers(List.of(
+                remoteCustomer(purged.getUuid(), city), remoteCustomer(deleted.getUuid(), city),
+                remoteCustomer(added, city)));
+
+        assertEquals(1, saved);
+        assertEquals(0, countRows("customer", purged.getUuid()));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer WHERE uuid = ? AND deleted_at IS NOT NULL",
+                Integer.class, customerIdCodec.toDatabase(deleted.getUuid())));
+        assertEquals(List.of(added), customerService.getAllCustomers(0, 10, "city", city).getContent()
+                .stream().map(Customer::getUuid).toList());
+    }
+
+    private int countRows(String table, String uuid) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE uuid = ?", Integer.class,
+                customerIdCodec.toDatabase(uuid));
+    }
+
+    private static CustomerDTO remoteCustomer(String uuid, String city) {
+        return new CustomerDTO(uuid, "Remote", "Customer", null, null, city, null, null, null);
+    }
+
+    private static Customer newCustomer(String city) {
+        Customer customer = new Customer();
+        customer.setFirstName("Soft");
+        customer.setCity(city);
+        return customer;
+    }
+}
@@ -0,0 +1,248 @@
+package com.sunbase.clientmanager.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.sunbase.clientmanager.dto.CustomerDTO;
+import com.sunbase.clientmanager.dto.Password;
+import com.sunbase.clientmanager.entity.CustomerChangeEvent.ChangeType;
+import com.sunbase.clientmanager.entity.CustomerSyncRun;
+import com.sunbase.clientmanager.exception.ClientManagerException;
+import com.sunbase.clientmanager.repository.CustomerSyncRunRepository;
+import com.sunbase.clientmanager.type.CustomerIdCodec;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.util.AopTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Syncs from a mock remote API served over HTTP on a local port. A run that fails part-way through on a customer
+ * the database cannot store, or whose thread is killed part-way through, must be resumed by the next run over
+ * the same list, which only does the work that is left.
+ */
+@SpringBootTest(properties = {
+        "clientmanager.sync.chunk-size=100",
+        // Keeps the background jobs out of the query counts
+        "clientmanager.changes.relay-interval-ms=3600000",
+        "clientmanager.purge.interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class CustomerSyncResumeTest {
+
+    private static final int CUSTOMERS = 2000;
+    private static final int FAILING_INDEX = 1250;
+    private static final int KILLED_CUSTOMERS = 1000;
+
+    private static final AtomicReference<byte[]> remoteCustomers = new AtomicReference<>();
+    private static HttpServer remote;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerSyncRunRepository syncRunRepository;
+
+    @Autowired
+    private CustomerIdCodec customerIdCodec;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // The spy sits behind the transactional proxy, so it is stubbed through AopTestUtils
+    @SpyBean
+    private CustomerChangeService changeService;
+
+    @DynamicPropertySource
+    static void remoteApi(DynamicPropertyRegistry registry) throws IOException {
+        remote = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        remote.createContext("/auth", exchange -> respond(exchange, "{\"access_token\":\"test-token\"}".getBytes()));
+        remote.createContext("/customers", exchange -> respond(exchange, remoteCustomers.get()));
+        remote.start();
+
+        String url = "http://localhost:" + remote.getAddress().getPort();
+        registry.add("clientmanager.sync.auth-url", () -> url + "/auth");
+        registry.add("clientmanager.sync.remote-url", () -> url + "/customers?cmd=get_customer_list");
+    }
+
+    @AfterAll
+    static void stopRemote() {
+        remote.stop(0);
+    }
+
+    @BeforeEach
+    void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("sync-user", null));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void failedRunResumesAtItsCheckpoint() throws Exception {
+        List<CustomerDTO> customers = new ArrayList<>(IntStream.range(0, CUSTOMERS)
+                .mapToObj(i -> remoteCustomer(customerIdCodec.newId(), "Resume" + i))
+                .toList());
+        CustomerDTO failing = customers.get(FAILING_INDEX);
+        customers.set(FAILING_INDEX, remoteCustomer(failing.uuid(), "x".repeat(300)));
+        remoteCustomers.set(objectMapper.writeValueAsBytes(customers));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        long queries = statistics.getQueryExecutionCount();
+        ClientManagerException failure = assertThrows(ClientManagerException.class,
+                () -> customerService.syncData(new Password("secret")));
+        long failedQueries = statistics.getQueryExecutionCount() - queries;
+
+        // Chunks before the failing one are committed with the checkpoint, the failing chunk is rolled back
+        assertTrue(failure.getMessage().startsWith("Sync stopped after 1200 of 2000 customers"), failure.getMessage());
+        CustomerSyncRun run = syncRunRepository.findFirstByOrderByIdDesc().orElseThrow();
+        assertEquals(CustomerSyncRun.Status.FAILED, run.getStatus());
+        assertEquals(1200, run.getNextOffset());
+        assertEquals(1200, run.getAdded());
+        assertEquals(1200, countStored(customers));
+
+        // The remote fixes the record; the ids are unchanged, so the same snapshot is resumed
+        customers.set(FAILING_INDEX, remoteCustomer(failing.uuid(), "Resume" + FAILING_INDEX));
+        remoteCustomers.set(objectMapper.writeValueAsBytes(customers));
+
+        queries = statistics.getQueryExecutionCount();
+        assertEquals("2000 customers added successfully", customerService.syncData(new Password("secret")));
+        long resumedQueries = statistics.getQueryExecutionCount() - queries;
+
+        CustomerSyncRun resumed = syncRunRepository.findFirstByOrderByIdDesc().orElseThrow();
+        assertEquals(run.getId(), resumed.getId());
+        assertEquals(CustomerSyncRun.Status.COMPLETED, resumed.getStatus());
+        assertEquals(2, resumed.getAttempts());
+        assertEquals(0, resumed.getSkipped());
+        assertEquals(CUSTOMERS, countStored(customers));
+
+        // 8 chunks were left against 13 attempted by the first run (starting over would take 20),
+        // plus a couple of queries per run to find the checkpoint
+        assertTrue(resumedQueries <= failedQueries * 8 / 13 + 2, resumedQueries + " vs " + failedQueries);
+
+        // Nothing is new any more, so a further run adds nothing
+        assertThrows(ClientManagerException.class, () -> customerService.syncData(new Password("secret")));
+    }
+
+    @Test
+    void killedRunIsResumedOnceItsHeartbeatIsStale() throws Exception {
+        List<CustomerDTO> customers = IntStream.range(0, KILLED_CUSTOMERS)
+                .mapToObj(i -> remoteCustomer(customerIdCodec.newId(), "Killed" + i))
+                .toList();
+        remoteCustomers.set(objectMapper.writeValueAsBytes(customers));
+
+        // The sync thread stops inside its fourth chunk and then dies the way a killed process does:
+        // the chunk is rolled back and nothing gets to mark the run failed
+        CountDownLatch stopped = new CountDownLatch(1);
+        CountDownLatch kill = new CountDownLatch(1);
+        AtomicInteger chunks = new AtomicInteger();
+        doAnswer(invocation -> {
+            if (chunks.incrementAndGet() == 4) {
+                stopped.countDown();
+                kill.await();
+                throw new Killed();
+            }
+            return invocation.callRealMethod();
+        }).when(AopTestUtils.<CustomerChangeService>getTargetObject(changeService))
+                .recordChanges(eq(ChangeType.SYNCED), anyList());
+
+        AtomicReference<Throwable> died = new AtomicReference<>();
+        Thread worker = new Thread(() -> {
+            SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("sync-user", null));
+            try {
+                customerService.syncData(new Password("secret"));
+            } catch (Throwable e) {
+                died.set(e);
+            }
+        });
+        worker.start();
+        assertTrue(stopped.await(30, TimeUnit.SECONDS));
+
+        // The run is still in progress, so a second sync leaves it alone
+        ClientManagerException refused = assertThrows(ClientManagerException.class,
+                () -> customerService.syncData(new Password("secret")));
+        assertTrue(refused.getMessage().contains("still in progress at 300 of 1000"), refused.getMessage());
+
+        kill.countDown();
+        worker.join(30_000);
+        assertInstanceOf(Killed.class, died.get());
+        CustomerSyncRun run = syncRunRepository.findFirstByOrderByIdDesc().orElseThrow();
+        assertEquals(CustomerSyncRun.Status.RUNNING, run.getStatus());
+        assertEquals(300, run.getNextOffset());
+        assertEquals(300, countStored(customers));
+
+        // A killed run looks live until its heartbeat is stale
+        assertThrows(ClientManagerException.class, () -> customerService.syncData(new Password("secret")));
+        jdbcTemplate.update("UPDATE customer_sync_run SET updated_at = ? WHERE id = ?",
+                LocalDateTime.now().minusHours(1), run.getId());
+
+        assertEquals("1000 customers added successfully", customerService.syncData(new Password("secret")));
+        CustomerSyncRun resumed = syncRunRepository.findFirstByOrderByIdDesc().orElseThrow();
+        assertEquals(run.getId(), resumed.getId());
+        assertEquals(CustomerSyncRun.Status.COMPLETED, resumed.getStatus());
+        assertEquals(2, resumed.getAttempts());
+        assertEquals(KILLED_CUSTOMERS, resumed.getAdded());
+        assertEquals(KILLED_CUSTOMERS, countStored(customers));
+    }
+
+    private int countStored(List<CustomerDTO> customers) {
+        return customers.stream()
+                .mapToInt(customer -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM customer WHERE uuid = ?",
+                        Integer.class, customerIdCodec.toDatabase(customer.uuid())))
+                .sum();
+    }
+
+    private static CustomerDTO remoteCustomer(String uuid, String firstName) {
+        return new CustomerDTO(uuid, firstName, "Sync", "Elvnu Street", "H no 2", "Delhi", "Delhi", null, null);
+    }
+
+    // Escapes the sync's failure handling, which only catches exceptions
+    private static class Killed extends Error {
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
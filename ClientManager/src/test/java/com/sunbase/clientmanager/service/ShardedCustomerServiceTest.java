@@ -0,0 +1,269 @@
+package com.sunbase.clientmanager.service;
+
+import com.sunbase.clientmanager.dto.ChangePage;
+import com.sunbase.clientmanager.dto.CustomerDTO;
+import com.sunbase.clientmanager.dto.CustomerFilter;
+import com.sunbase.clientmanager.dto.ShardCount;
+import com.sunbase.clientmanager.entity.Customer;
+import com.sunbase.clientmanager.exception.ClientManagerException;
+import com.sunbase.clientmanager.service.CustomerDuplicateService.DuplicatePolicy;
+import com.sunbase.clientmanager.type.CustomerIdCodec;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs against three in-memory H2 shards, each migrated by Flyway on startup, and checks where rows land
+ * by querying every shard directly.
+ */
+@SpringBootTest(properties = {
+        "clientmanager.shards.enabled=true",
+        "clientmanager.shards.urls=" + ShardedCustomerServiceTest.SHARD_URLS,
+        "clientmanager.reactive.enabled=true",
+        "clientmanager.reactive.shard-urls=" + ShardedCustomerServiceTest.REACTIVE_SHARD_URLS,
+        "clientmanager.changes.relay-interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class ShardedCustomerServiceTest {
+
+    static final String SHARD_URLS = "jdbc:h2:mem:shard0;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1,"
+            + "jdbc:h2:mem:shard1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1,"
+            + "jdbc:h2:mem:shard2;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    static final String REACTIVE_SHARD_URLS = "r2dbc:h2:mem:///shard0;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1,"
+            + "r2dbc:h2:mem:///shard1;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1,"
+            + "r2dbc:h2:mem:///shard2;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private CustomerServiceImpl customerServiceImpl;
+
+    @Autowired
+    private CustomerDuplicateService duplicateService;
+
+    @Autowired
+    private CustomerShardService shardService;
+
+    @Autowired
+    private CustomerShards customerShards;
+
+    @Autowired
+    private CustomerIdCodec customerIdCodec;
+
+    @Autowired
+    private CustomerChangeService changeService;
+
+    @Autowired
+    private ReactiveCustomerService reactiveCustomerService;
+
+    private final List<JdbcTemplate> shards = List.of(SHARD_URLS.split(",")).stream()
+            .map(url -> new JdbcTemplate(new DriverManagerDataSource(url, "sa", "")))
+            .toList();
+
+    @Test
+    void customersAreStoredOnTheShardTheirIdMapsTo() {
+        List<Customer> created = IntStream.range(0, 9)
+                .mapToObj(i -> customerService.createCustomer(newCustomer("Home" + i, "HomeCity")))
+                .toList();
+
+        Set<Integer> used = new HashSet<>();
+        for (Customer customer : created) {
+            int home = customerShards.shardOf(customer.getUuid());
+            used.add(home);
+            for (int shard = 0; shard < shards.size(); shard++) {
+                assertEquals(shard == home ? 1 : 0, countCustomer(shard, customer.getUuid()));
+            }
+            assertEquals(customer.getFirstName(), customerService.getCustomerById(customer.getUuid()).getFirstName());
+        }
+        assertEquals(3, used.size());
+
+        assertEquals(9, customerService.deleteCustomers(created.stream().map(Customer::getUuid).toList()));
+        assertEquals(0, customerService.getAllCustomers(0, 10, "city", "HomeCity").getTotalElements());
+    }
+
+    @Test
+    void pagesAreMergedFromEveryShardInSortOrder() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            String name = "Merge" + (char) ('a' + (i * 7) % 10);
+            names.add(name);
+            customerService.createCustomer(newCustomer(name, "MergeCity"));
+        }
+        names.sort(Comparator.reverseOrder());
+
+        CustomerFilter filter = new CustomerFilter("MergeCity", null, null, null, null, null);
+        List<String> paged = new ArrayList<>();
+        for (int page = 0; page < 4; page++) {
+            Page<Customer> result = customerService.searchCustomers(filter, page, 3, "firstName", "desc");
+            assertEquals(10, result.getTotalElements());
+            result.getContent().forEach(customer -> paged.add(customer.getFirstName()));
+        }
+
+        assertEquals(names, paged);
+    }
+
+    @Test
+    void changesArePolledFromEveryShard() {
+        String start = changeService.getLatestCursor();
+        assertEquals(3, start.split("-").length);
+
+        List<Customer> created = IntStream.range(0, 6)
+                .mapToObj(i -> customerService.createCustomer(newCustomer("Change" + i, "ChangeCity")))
+                .toList();
+
+        List<String> polled = new ArrayList<>();
+        String cursor = start;
+        ChangePage changes;
+        do {
+            changes = changeService.getChanges(cursor, 2);
+            changes.events().forEach(event -> polled.add(event.getCustomerUuid()));
+            cursor = changes.cursor();
+        } while (!changes.events().isEmpty());
+
+        assertEquals(created.stream().map(Customer::getUuid).toList(), polled);
+        assertEquals(changeService.getLatestCursor(), cursor);
+    }
+
+    @Test
+    void reactiveReadsAreMergedFromEveryShard() {
+        List<String> names = new ArrayList<>();
+        List<Customer> created = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String name = "Flux" + (char) ('a' + (i * 3) % 8);
+            names.add(name);
+            created.add(customerService.createCustomer(newCustomer(name, "FluxCity")));
+        }
+        names.sort(Comparator.naturalOrder());
+
+        List<String> paged = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            reactiveCustomerService.searchCustomers(page, 3, "city", "FluxCity")
+                    .map(Customer::getFirstName)
+                    .collectList()
+                    .blockOptional()
+                    .ifPresent(paged::addAll);
+        }
+        List<String> sorted = reactiveCustomerService.getAllCustomers(0, 100, "firstName")
+                .map(Customer::getFirstName)
+                .filter(name -> name != null && name.startsWith("Flux"))
+                .collectList()
+                .block();
+
+        assertEquals(8, paged.size());
+        assertEquals(names, sorted);
+        assertThrows(ClientManagerException.class,
+                () -> reactiveCustomerService.getAllCustomers(Integer.MAX_VALUE, 2, "firstName").blockFirst());
+        for (Customer customer : created) {
+            assertEquals(customer.getFirstName(), reactiveCustomerService.getCustomerById(customer.getUuid())
+                    .map(Customer::getFirstName)
+                    .block());
+        }
+    }
+
+    @Test
+    void syncFindsDuplicatesOnOtherShards() {
+        Customer flagged = customerService.createCustomer(newCustomer("Flagged", "SyncCity"));
+        CustomerDTO flaggedRemote = remoteOnOtherShard(flagged, null);
+        int flaggedHome = customerShards.shardOf(flaggedRemote.uuid());
+
+        assertEquals(1, customerShards.inShard(flaggedHome,
+                () -> customerServiceImpl.syncRemoteCustomers(List.of(flaggedRemote))));
+        assertEquals(flagged.getUuid(), shards.get(flaggedHome).queryForObject(
+                "SELECT duplicate_of FROM customer WHERE uuid = ?", String.class, flaggedRemote.uuid()));
+
+        setPolicy(DuplicatePolicy.MERGE);
+        try {
+            Customer merged = customerService.createCustomer(newCustomer("Merged", "SyncCity"));
+            CustomerDTO mergedRemote = remoteOnOtherShard(merged, "Remote");
+            int mergedHome = customerShards.shardOf(mergedRemote.uuid());
+
+            assertEquals(0, customerShards.inShard(mergedHome,
+                    () -> customerServiceImpl.syncRemoteCustomers(List.of(mergedRemote))));
+            assertEquals(0, countCustomer(mergedHome, mergedRemote.uuid()));
+            assertEquals("Remote", shards.get(customerShards.shardOf(merged.getUuid())).queryForObject(
+                    "SELECT last_name FROM customer WHERE uuid = ?", String.class, merged.getUuid()));
+        } finally {
+            setPolicy(DuplicatePolicy.FLAG);
+        }
+    }
+
+    @Test
+    void rebalanceMovesRowsToTheirShard() {
+        String uuid = customerIdCodec.newId();
+        int home = customerShards.shardOf(uuid);
+        int wrong = (home + 1) % shards.size();
+        shards.get(wrong).update("INSERT INTO customer (uuid, first_name, city) VALUES (?, 'Moved', 'MovedCity')", uuid);
+
+        assertTrue(shardService.getShardCounts().stream().mapToLong(ShardCount::misplaced).sum() >= 1);
+
+        shardService.rebalance();
+
+        assertEquals(1, countCustomer(home, uuid));
+        assertEquals(0, countCustomer(wrong, uuid));
+        assertEquals("Moved", customerService.getCustomerById(uuid).getFirstName());
+        assertEquals(0, shardService.getShardCounts().stream().mapToLong(ShardCount::misplaced).sum());
+    }
+
+    @Test
+    void rebalanceReplacesAStaleCopyOnTheTarget() {
+        String uuid = customerIdCodec.newId();
+        int home = customerShards.shardOf(uuid);
+        int wrong = (home + 1) % shards.size();
+        shards.get(wrong).update("INSERT INTO customer (uuid, first_name, city, version) VALUES (?, 'Current', 'StaleCity', 3)", uuid);
+        shards.get(home).update("INSERT INTO customer (uuid, first_name, city, version) VALUES (?, 'Stale', 'StaleCity', 1)", uuid);
+
+        shardService.rebalance();
+
+        assertEquals(1, countCustomer(home, uuid));
+        assertEquals(0, countCustomer(wrong, uuid));
+        assertEquals("Current", shards.get(home).queryForObject(
+                "SELECT first_name FROM customer WHERE uuid = ?", String.class, uuid));
+        assertEquals(3L, shards.get(home).queryForObject(
+                "SELECT version FROM customer WHERE uuid = ?", Long.class, uuid));
+    }
+
+    private int countCustomer(int shard, String uuid) {
+        return shards.get(shard).queryForObject("SELECT COUNT(*) FROM customer WHERE uuid = ?", Integer.class, uuid);
+    }
+
+    private Customer newCustomer(String firstName, String city) {
+        Customer customer = new Customer();
+        customer.setFirstName(firstName);
+        customer.setCity(city);
+        customer.setEmail(UUID.randomUUID() + "@example.com");
+        return customer;
+    }
+
+    // A remote customer with the same email whose id maps to a different shard than the existing customer
+    private CustomerDTO remoteOnOtherShard(Customer existing, String lastName) {
+        String uuid = customerIdCodec.newId();
+        while (customerShards.shardOf(uuid) == customerShards.shardOf(existing.getUuid())) {
+            uuid = customerIdCodec.newId();
+        }
+        return new CustomerDTO(uuid, existing.getFirstName(), lastName, null, null, existing.getCity(), null,
+                existing.getEmail(), null);
+    }
+
+    private void setPolicy(DuplicatePolicy policy) {
+        Object target = AopTestUtils.getTargetObject(duplicateService);
+        ReflectionTestUtils.setField(target, "policy", policy);
+    }
+}
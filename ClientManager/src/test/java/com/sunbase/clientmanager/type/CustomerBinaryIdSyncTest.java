@@ -0,0 +1,59 @@
+package com.sunbase.clientmanager.type;
+
+import com.sunbase.clientmanager.dto.CustomerDTO;
+import com.sunbase.clientmanager.service.CustomerServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs on its own in-memory H2 database with binary ids, so migration V12 converts the id columns on startup.
+ */
+@SpringBootTest(properties = {
+        "clientmanager.ids.binary=true",
+        "spring.datasource.url=jdbc:h2:mem:binary_ids;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "clientmanager.changes.relay-interval-ms=3600000",
+        "clientmanager.purge.interval-ms=3600000"
+})
+@ActiveProfiles("test")
+class CustomerBinaryIdSyncTest {
+
+    @Autowired
+    private CustomerServiceImpl customerService;
+
+    @Autowired
+    private CustomerIdCodec customerIdCodec;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrationStoresIdsAsBinary() {
+        assertEquals("binary varying", jdbcTemplate.queryForObject(
+                "SELECT data_type FROM information_schema.columns WHERE table_name = 'customer' AND column_name = 'uuid'",
+                String.class));
+    }
+
+    @Test
+    void uppercaseRemoteIdsAreKnownOnTheNextSync() {
+        String lowercase = customerIdCodec.newId();
+        String uppercase = "test" + lowercase.substring(4).toUpperCase();
+        List<CustomerDTO> remote = List.of(remoteCustomer(uppercase, "Upper"), remoteCustomer(lowercase, "Lower"));
+
+        assertEquals(2, customerService.syncRemoteCustomers(remote));
+        assertEquals(0, customerService.syncRemoteCustomers(remote));
+
+        assertEquals("Upper", customerService.getCustomerById(uppercase).getFirstName());
+        assertEquals("Lower", customerService.getCustomerById(lowercase).getFirstName());
+    }
+
+    private static CustomerDTO remoteCustomer(String uuid, String firstName) {
+        return new CustomerDTO(uuid, firstName, "Sync", "Elvnu Street", "H no 2", "Delhi", "Delhi", null, null);
+    }
+}
@@ -0,0 +1,24 @@
+package com.sunbase.clientmanager.type;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CustomerFingerprintsTest {
+
+    @Test
+    void emailIgnoresCaseWhitespaceAndPlusTags() {
+        assertEquals("jane.doe@example.com", CustomerFingerprints.email(" Jane.Doe+crm@Example.COM "));
+        assertNull(CustomerFingerprints.email("not-an-email"));
+        assertNull(CustomerFingerprints.email(null));
+    }
+
+    @Test
+    void phoneKeepsTheLastTenDigits() {
+        assertEquals("9876543210", CustomerFingerprints.phone("+91 98765-43210"));
+        assertEquals("9876543210", CustomerFingerprints.phone("(987) 654 3210"));
+        assertNull(CustomerFingerprints.phone("12-34"));
+        assertNull(CustomerFingerprints.phone(null));
+    }
+}
@@ -0,0 +1,57 @@
+package com.sunbase.clientmanager.type;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerIdCodecTest {
+
+    private final CustomerIdCodec codec = binaryCodec();
+
+    @Test
+    void newIdsKeepTheExternalFormAndAreTimeOrdered() throws InterruptedException {
+        String first = codec.newId();
+        Thread.sleep(2);
+        String second = codec.newId();
+
+        assertTrue(first.matches("test[0-9a-f]{32}"));
+        assertEquals('7', first.charAt(4 + 12), "UUID version nibble");
+        assertTrue(first.compareTo(second) < 0);
+    }
+
+    @Test
+    void binaryFormRoundTripsExternalIds() {
+        String id = "test4f1a2b3c4d5e6f708192a3b4c5d6e7f8";
+
+        byte[] stored = (byte[]) codec.toDatabase(id);
+
+        assertEquals(16, stored.length);
+        assertEquals(id, codec.fromDatabase(stored));
+    }
+
+    @Test
+    void binaryFormKeepsOtherIdsInFallbackForm() {
+        for (String id : new String[]{"3f2504e0-4f89-11d3-9a0c-0305e82c3301", "fifteen-chars-1", "sixteen-chars-12",
+                "test4F1A2B3C4D5E6F708192A3B4C5D6E7F8"}) {
+            byte[] stored = (byte[]) codec.toDatabase(id);
+
+            assertTrue(codec.isStorable(id));
+            assertNotEquals(16, stored.length, id);
+            assertEquals(id, codec.fromDatabase(stored));
+        }
+    }
+
+    @Test
+    void binaryFormRejectsIdsThatCannotReadBack() {
+        assertFalse(codec.isStorable(""));
+        assertFalse(codec.isStorable("x".repeat(255)));
+        assertThrows(RuntimeException.class, () -> codec.toDatabase("\0id"));
+    }
+
+    private static CustomerIdCodec binaryCodec() {
+        CustomerIdCodec codec = new CustomerIdCodec();
+        ReflectionTestUtils.setField(codec, "binary", true);
+        return codec;
+    }
+}
@@ -0,0 +1,79 @@
+package com.sunbase.clientmanager.type;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the on-disk size of the old key layout (random "test" + UUID in VARCHAR(255)) with time-ordered
+ * UUIDv7 in their binary form, using file-based H2 databases with the primary key and one secondary index.
+ * The files are compacted before they are measured; on MySQL compare data_length and index_length in
+ * information_schema.tables before and after migration V12.
+ */
+class CustomerIdStorageTest {
+
+    private static final int ROWS = 20_000;
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void binaryTimeOrderedKeysTakeLessSpace() throws Exception {
+        CustomerIdCodec codec = new CustomerIdCodec();
+        ReflectionTestUtils.setField(codec, "binary", true);
+
+        List<String> randomIds = new ArrayList<>();
+        List<String> orderedIds = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            randomIds.add("test" + UUID.randomUUID().toString().replace("-", ""));
+            orderedIds.add(codec.newId());
+        }
+
+        long varchar = storedBytes("varchar", "VARCHAR(255)", randomIds, id -> id);
+        long binary = storedBytes("binary", "VARBINARY(255)", orderedIds, codec::toDatabase);
+
+        // Each key shrinks from 36 to 16 bytes, in the primary key and in every secondary index entry
+        assertTrue(binary < varchar * 3 / 4, "binary: " + binary + " bytes, varchar: " + varchar + " bytes");
+    }
+
+    private long storedBytes(String name, String keyType, List<String> ids,
+                             Function<String, Object> toDatabase) throws SQLException, IOException {
+        String url = "jdbc:h2:" + directory.resolve(name) + ";MODE=MySQL";
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("CREATE TABLE id_storage (uuid " + keyType + " PRIMARY KEY, city VARCHAR(255))");
+                statement.execute("CREATE INDEX idx_id_storage_city ON id_storage (city)");
+            }
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO id_storage VALUES (?, ?)")) {
+                for (int i = 0; i < ids.size(); i++) {
+                    insert.setObject(1, toDatabase.apply(ids.get(i)));
+                    insert.setString(2, "City" + (i % 50));
+                    insert.addBatch();
+                    if (i % 500 == 499) {
+                        insert.executeBatch();
+                    }
+                }
+                insert.executeBatch();
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SHUTDOWN COMPACT");
+            }
+        }
+        return Files.size(directory.resolve(name + ".mv.db"));
+    }
+}
@@ -0,0 +1,27 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the application with the given JVM arguments until its context is refreshed and reports the wall time.
+ * Used by the fast-startup build profile: java src/tools/StartupTimer.java <label> <java arguments...>
+ */
+public class StartupTimer {
+
+    public static void main(String[] args) throws Exception {
+        String label = args[0];
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(Arrays.asList(args).subList(1, args.length));
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).inheritIO().start();
+        int exitCode = process.waitFor();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("%n[startup] %s: context refreshed in %d ms (exit code %d)%n", label, elapsedMs, exitCode);
+        if (exitCode != 0) {
+            System.exit(exitCode);
+        }
+    }
+}